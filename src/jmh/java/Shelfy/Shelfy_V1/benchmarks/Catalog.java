@@ -0,0 +1,44 @@
+package Shelfy.Shelfy_V1.benchmarks;
+
+import Shelfy.Shelfy_V1.entities.Product;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Deterministic synthetic catalog shared by the benchmarks.
+final class Catalog {
+
+    static final String[] BRANDS = {
+            "HealthyLife", "SnackKing", "DairyBest", "GreenFarm", "Sunrise",
+            "OceanFresh", "BakeHouse", "Nordic", "PureWater", "ChocoLand"};
+    private static final String[] WORDS = {
+            "organic", "milk", "chocolate", "peanuts", "salted", "oat", "bread", "butter", "cheese",
+            "yogurt", "apple", "juice", "green", "tea", "coffee", "beans", "rice", "pasta", "tomato", "honey"};
+    private static final String[] UNITS = {"piece", "kg", "l", "pack"};
+
+    private Catalog() {
+    }
+
+    // Products with ids 1..size; the same seed always yields the same catalog.
+    static List<Product> products(int size) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + (100 + random.nextInt(900)) + "g";
+            Product p = new Product(name,
+                    BRANDS[random.nextInt(BRANDS.length)],
+                    UNITS[random.nextInt(UNITS.length)],
+                    BigDecimal.valueOf(50 + random.nextInt(2000), 2),
+                    "https://cdn.example.com/products/" + i + ".jpg",
+                    true,
+                    random.nextInt(10) == 0);
+            ReflectionTestUtils.setField(p, "id", (long) i);
+            products.add(p);
+        }
+        return products;
+    }
+}
@@ -0,0 +1,75 @@
+package Shelfy.Shelfy_V1.benchmarks;
+
+import Shelfy.Shelfy_V1.filters.JwtAuthenticationFilter;
+import Shelfy.Shelfy_V1.services.JwtService;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// One pass of an authenticated request through the JWT filter. GET /products/** never reaches this
+// filter (see SecurityFilterChainBenchmark), so the request is one of the authenticated endpoints.
+// "cached" replays one token, so it hits the verified-token cache; "uncached" disables the cache and
+// cycles through distinct tokens, so every request pays for the signature check.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"cached", "uncached"})
+    String cache;
+
+    private static final int TOKENS = 4096;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest[] requests;
+    private int next;
+    private MockHttpServletResponse response;
+    private final FilterChain chain = (req, res) -> { };
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = JwtServiceBenchmark.newJwtService();
+        filter = new JwtAuthenticationFilter(jwtService, "cached".equals(cache) ? 10_000 : 0);
+        requests = new MockHttpServletRequest["cached".equals(cache) ? 1 : TOKENS];
+        for (int i = 0; i < requests.length; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/me");
+            request.setServletPath("/auth/me");
+            request.addHeader(HttpHeaders.AUTHORIZATION,
+                    "Bearer " + jwtService.generateAccessToken("user" + i, List.of("ROLE_USER")));
+            requests[i] = request;
+        }
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Authentication doFilter() throws Exception {
+        MockHttpServletRequest request = requests[next];
+        next = (next + 1) % requests.length;
+        // OncePerRequestFilter marks the request as filtered, so clear the marker each time
+        request.clearAttributes();
+        filter.doFilter(request, response, chain);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
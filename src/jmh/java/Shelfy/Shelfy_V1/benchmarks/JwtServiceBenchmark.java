@@ -0,0 +1,55 @@
+package Shelfy.Shelfy_V1.benchmarks;
+
+import Shelfy.Shelfy_V1.services.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Signing and verifying access tokens with the production JwtService.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    static final String SECRET = "benchmark-secret-key-0123456789abcdef";
+    static final String ISSUER = "shelfy";
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = newJwtService();
+        token = jwtService.generateAccessToken("alice", List.of("ROLE_USER"));
+    }
+
+    static JwtService newJwtService() {
+        return new JwtService(SECRET, ISSUER, Duration.ofHours(1), Duration.ofDays(7));
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken("alice", List.of("ROLE_USER"));
+    }
+
+    @Benchmark
+    public Jws<Claims> parse() {
+        return jwtService.parse(token);
+    }
+}
@@ -0,0 +1,43 @@
+package Shelfy.Shelfy_V1.benchmarks;
+
+import Shelfy.Shelfy_V1.DTOs.ProductDto;
+import Shelfy.Shelfy_V1.entities.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Entity to DTO mapping of a search result page.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductDtoBenchmark {
+
+    @Param({"20", "1000"})
+    int size;
+
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        products = Catalog.products(size);
+    }
+
+    @Benchmark
+    public List<ProductDto> mapPage() {
+        return products.stream().map(ProductDto::from).toList();
+    }
+}
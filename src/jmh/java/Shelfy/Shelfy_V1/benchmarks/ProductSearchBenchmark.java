@@ -0,0 +1,56 @@
+package Shelfy.Shelfy_V1.benchmarks;
+
+import Shelfy.Shelfy_V1.DTOs.ProductDto;
+import Shelfy.Shelfy_V1.search.ProductFilter;
+import Shelfy.Shelfy_V1.search.ProductSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Filter evaluation against the in-memory search index.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    @Param({"10000"})
+    int size;
+
+    private ProductSearchIndex index;
+    private final ProductFilter byName = ProductFilter.of("choc", null, null, null, null);
+    private final ProductFilter combined = ProductFilter.of("milk", List.of("DairyBest", "HealthyLife"),
+            new BigDecimal("2.00"), new BigDecimal("10.00"), null);
+    private final Sort byPrice = Sort.by(Sort.Order.desc("defaultPrice"));
+
+    @Setup
+    public void setUp() {
+        index = new ProductSearchIndex(null, true);
+        index.rebuild(Catalog.products(size).stream().map(ProductDto::from).toList());
+    }
+
+    @Benchmark
+    public List<ProductDto> nameOnly() {
+        return index.search(byName, Sort.unsorted()).orElseThrow();
+    }
+
+    @Benchmark
+    public List<ProductDto> nameBrandPriceSortedByPrice() {
+        return index.search(combined, byPrice).orElseThrow();
+    }
+}
@@ -0,0 +1,121 @@
+package Shelfy.Shelfy_V1.benchmarks;
+
+import Shelfy.Shelfy_V1.configuration.CorsConfig;
+import Shelfy.Shelfy_V1.configuration.SecurityConfig;
+import Shelfy.Shelfy_V1.filters.JwtAuthenticationFilter;
+import Shelfy.Shelfy_V1.services.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Security overhead of one public catalog read (GET /products/search), measured through FilterChainProxy.
+// "single" is the setup before the public chain existed: every request ran the full authenticated
+// chain, JWT filter included. "split" is the current SecurityConfig, whose first chain matches the
+// request. "bearer" sends a token as a signed-in browser does; "anonymous" sends none.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecurityFilterChainBenchmark {
+
+    @Param({"single", "split"})
+    String chains;
+
+    @Param({"anonymous", "bearer"})
+    String caller;
+
+    private AnnotationConfigWebApplicationContext context;
+    private FilterChainProxy proxy;
+    private MockHttpServletRequest request;
+    private final FilterChain application = (req, res) -> { };
+
+    @Configuration
+    @EnableWebMvc
+    static class Beans {
+
+        @Bean
+        JwtService jwtService() {
+            return JwtServiceBenchmark.newJwtService();
+        }
+
+        @Bean
+        JwtAuthenticationFilter jwtAuthenticationFilter(JwtService jwtService) {
+            return new JwtAuthenticationFilter(jwtService, 10_000);
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        context.register(Beans.class, CorsConfig.class, SecurityConfig.class);
+        context.refresh();
+
+        SecurityFilterChain secured = context.getBean("securityFilterChain", SecurityFilterChain.class);
+        proxy = "single".equals(chains)
+                ? new FilterChainProxy(secured)
+                : new FilterChainProxy(List.of(
+                        context.getBean("publicCatalogFilterChain", SecurityFilterChain.class), secured));
+        proxy.afterPropertiesSet();
+
+        request = new MockHttpServletRequest(context.getServletContext(), "GET", "/products/search");
+        request.setServletPath("/products/search");
+        request.setParameter("name", "milk");
+        if ("bearer".equals(caller)) {
+            request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer "
+                    + context.getBean(JwtService.class).generateAccessToken("alice", List.of("ROLE_USER")));
+        }
+        // Make sure both setups let the request through to the application
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        proxy.doFilter(request, response, application);
+        if (response.getStatus() != 200) {
+            throw new IllegalStateException("Request was rejected with " + response.getStatus());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse doFilter() throws Exception {
+        // Filters mark the request as processed, so clear the markers each time
+        request.clearAttributes();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        proxy.doFilter(request, response, application);
+        return response;
+    }
+}
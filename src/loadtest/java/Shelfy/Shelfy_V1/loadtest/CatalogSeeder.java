@@ -0,0 +1,65 @@
+package Shelfy.Shelfy_V1.loadtest;
+
+import org.flywaydb.core.Flyway;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Migrates the load-test database and fills it with a synthetic catalog.
+// Rows are generated inside PostgreSQL (generate_series), so even 10M products load in minutes
+// without streaming anything through the JVM. Names are built from WORDS so substring searches hit.
+final class CatalogSeeder {
+
+    static final String[] WORDS = {
+            "organic", "milk", "chocolate", "peanuts", "salted", "oat", "bread", "butter", "cheese", "yogurt",
+            "apple", "juice", "green", "tea", "coffee", "beans", "rice", "pasta", "tomato", "honey"};
+    static final int BRANDS = 200;
+
+    private static final int CHUNK = 1_000_000;
+
+    private final String url;
+    private final String username;
+    private final String password;
+
+    CatalogSeeder(String url, String username, String password) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    // Apply the migrations and make sure the catalog holds exactly ids 1..products.
+    void seed(long products) throws SQLException {
+        Flyway.configure().dataSource(url, username, password).load().migrate();
+        try (Connection c = DriverManager.getConnection(url, username, password); Statement s = c.createStatement()) {
+            s.execute("TRUNCATE products");
+            String words = "ARRAY['" + String.join("','", WORDS) + "']";
+            try (PreparedStatement insert = c.prepareStatement("""
+                    INSERT INTO products (id, name, brand, unit, default_price, image_url, is_active, is_recommended,
+                                          created_at, last_update)
+                    SELECT i,
+                           initcap((%1$s)[1 + i %% %2$d] || ' ' || (%1$s)[1 + (i / %2$d) %% %2$d]) || ' ' || i,
+                           'Brand ' || (i %% %3$d),
+                           (ARRAY['piece', 'kg', 'l', 'pack'])[1 + i %% 4],
+                           ((i * 7919) %% 2000 + 50) / 100.0,
+                           'https://cdn.example.com/products/' || i || '.jpg',
+                           i %% 17 <> 0,
+                           i %% 10 = 0,
+                           now(), now()
+                    FROM generate_series(?::bigint, ?::bigint) AS i
+                    """.formatted(words, WORDS.length, BRANDS))) {
+                for (long from = 1; from <= products; from += CHUNK) {
+                    insert.setLong(1, from);
+                    insert.setLong(2, Math.min(products, from + CHUNK - 1));
+                    insert.executeUpdate();
+                }
+            }
+            // New products must not collide with the seeded ids. Hibernate's pooled optimizer treats a
+            // sequence value as the top of a block of 50 ids, so the next value must be at least 50 higher
+            s.execute("SELECT setval('products_seq', " + (products + 50) + ", false)");
+            s.execute("ANALYZE products");
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package Shelfy.Shelfy_V1.loadtest;
+
+import java.util.Arrays;
+
+// Latencies of one endpoint as seen by one client thread. Not thread-safe; merge() the per-thread
+// recorders once the run is over.
+final class LatencyRecorder {
+
+    private long[] nanos = new long[1024];
+    private int count;
+    private long errors;
+
+    void record(long latencyNanos, boolean ok) {
+        if (count == nanos.length) nanos = Arrays.copyOf(nanos, count * 2);
+        nanos[count++] = latencyNanos;
+        if (!ok) errors++;
+    }
+
+    void merge(LatencyRecorder other) {
+        if (count + other.count > nanos.length) nanos = Arrays.copyOf(nanos, count + other.count);
+        System.arraycopy(other.nanos, 0, nanos, count, other.count);
+        count += other.count;
+        errors += other.errors;
+    }
+
+    Summary summarize(double seconds) {
+        long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+        return new Summary(count, errors, count / seconds,
+                percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99), percentile(sorted, 99.9),
+                count == 0 ? 0 : sorted[count - 1] / 1e6);
+    }
+
+    // Nearest-rank percentile in milliseconds.
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(p / 100 * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+
+    record Summary(long requests, long errors, double throughput,
+                   double p50, double p90, double p99, double p999, double max) {
+    }
+}
@@ -0,0 +1,219 @@
+package Shelfy.Shelfy_V1.loadtest;
+
+import Shelfy.Shelfy_V1.ShelfyV1Application;
+import Shelfy.Shelfy_V1.services.JwtService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// End-to-end load test: seeds PostgreSQL with a synthetic catalog, starts the application in this JVM
+// and drives a weighted mix of search, get, brands and admin-write requests over HTTP, then reports
+// throughput and latency percentiles per endpoint.
+//
+// Options are passed as key=value arguments (see README); any key containing a dot is handed to the
+// application as a property, e.g. shelfy.search.index.enabled=true.
+// Without db-url a PostgreSQL container is started through Testcontainers; the image must already be
+// present locally to run offline.
+//
+// The clients are closed-loop (each sends its next request when the previous one returns), so under
+// overload the percentiles understate what an open stream of users would see.
+public final class LoadTest {
+
+    private static final String JWT_SECRET = "loadtest-secret-key-0123456789abcdef";
+    private static final String JWT_ISSUER = "loadtest";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        // DevTools would relaunch main() on a restart thread and run the whole harness twice
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        Map<String, String> options = new HashMap<>(Map.of(
+                "products", "10000",
+                "concurrency", "32",
+                "warmup", "15s",
+                "duration", "60s",
+                "mix", "search=60,get=25,brands=10,write=5",
+                "threads", "both",
+                "image", "postgres:16-alpine",
+                "report", "target/loadtest/report.txt"));
+        Map<String, Object> appProperties = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) throw new IllegalArgumentException("Expected key=value but got " + arg);
+            String key = arg.substring(0, eq);
+            if (key.contains(".")) appProperties.put(key, arg.substring(eq + 1));
+            else options.put(key, arg.substring(eq + 1));
+        }
+
+        long products = Long.parseLong(options.get("products"));
+        List<Boolean> modes = switch (options.get("threads")) {
+            case "platform" -> List.of(false);
+            case "virtual" -> List.of(true);
+            case "both" -> List.of(false, true);
+            default -> throw new IllegalArgumentException("threads must be platform, virtual or both");
+        };
+
+        PostgreSQLContainer<?> container = null;
+        String url = options.get("db-url");
+        String username = options.getOrDefault("db-user", "postgres");
+        String password = options.getOrDefault("db-password", "");
+        try {
+            if (url == null) {
+                container = new PostgreSQLContainer<>(options.get("image"));
+                container.start();
+                url = container.getJdbcUrl();
+                username = container.getUsername();
+                password = container.getPassword();
+            }
+
+            System.out.printf("Seeding %,d products...%n", products);
+            long seedStart = System.nanoTime();
+            new CatalogSeeder(url, username, password).seed(products);
+            System.out.printf("Seeded in %.1fs%n", (System.nanoTime() - seedStart) / 1e9);
+
+            StringBuilder report = new StringBuilder()
+                    .append("Shelfy load test, ").append(Instant.now()).append('\n')
+                    .append("products=").append(products)
+                    .append(" concurrency=").append(options.get("concurrency"))
+                    .append(" warmup=").append(options.get("warmup"))
+                    .append(" duration=").append(options.get("duration"))
+                    .append(" mix=").append(options.get("mix"))
+                    .append(" cpus=").append(Runtime.getRuntime().availableProcessors())
+                    .append(" java=").append(Runtime.version()).append('\n');
+            if (!appProperties.isEmpty()) report.append("properties=").append(appProperties).append('\n');
+
+            for (boolean virtualThreads : modes) {
+                Map<String, Object> properties = new LinkedHashMap<>();
+                properties.put("spring.datasource.url", url);
+                properties.put("spring.datasource.username", username);
+                properties.put("spring.datasource.password", password);
+                properties.put("security.jwt.secret", JWT_SECRET);
+                properties.put("security.jwt.issuer", JWT_ISSUER);
+                properties.put("server.port", "0");
+                properties.put("spring.threads.virtual.enabled", virtualThreads);
+                properties.put("spring.sql.init.mode", "never");
+                properties.put("spring.jpa.show-sql", "false");
+                properties.put("logging.level.root", "WARN");
+                properties.putAll(appProperties);
+
+                String label = virtualThreads ? "virtual threads" : "platform threads";
+                System.out.println("Starting application on " + label + "...");
+                // As command line arguments, so they win over application.properties
+                String[] appArgs = properties.entrySet().stream()
+                        .map(e -> "--" + e.getKey() + "=" + e.getValue())
+                        .toArray(String[]::new);
+                try (ConfigurableApplicationContext app = new SpringApplicationBuilder(ShelfyV1Application.class)
+                        .run(appArgs)) {
+                    String baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port") + "/api";
+                    String token = new JwtService(JWT_SECRET, JWT_ISSUER, Duration.ofHours(1), Duration.ofHours(1))
+                            .generateAccessToken("loadtest", List.of("ROLE_ADMIN"));
+                    Traffic traffic = new Traffic(baseUrl, products, token, Traffic.parseMix(options.get("mix")));
+                    int concurrency = Integer.parseInt(options.get("concurrency"));
+
+                    System.out.println("Warming up for " + options.get("warmup") + "...");
+                    drive(traffic, concurrency, DurationStyle.detectAndParse(options.get("warmup")));
+                    System.out.println("Measuring for " + options.get("duration") + "...");
+                    long start = System.nanoTime();
+                    Map<Traffic.Endpoint, LatencyRecorder> results =
+                            drive(traffic, concurrency, DurationStyle.detectAndParse(options.get("duration")));
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    report.append('\n').append(format(label, results, seconds));
+                }
+            }
+
+            System.out.println();
+            System.out.print(report);
+            Path file = Path.of(options.get("report"));
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            Files.writeString(file, report);
+            System.out.println("\nReport written to " + file.toAbsolutePath());
+        } finally {
+            if (container != null) container.stop();
+        }
+    }
+
+    // Run the clients for the given time and return the merged latencies per endpoint.
+    private static Map<Traffic.Endpoint, LatencyRecorder> drive(Traffic traffic, int concurrency, Duration duration)
+            throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Map<Traffic.Endpoint, LatencyRecorder>> perThread = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            Map<Traffic.Endpoint, LatencyRecorder> recorders = new EnumMap<>(Traffic.Endpoint.class);
+            perThread.add(recorders);
+            SplittableRandom random = new SplittableRandom(i);
+            threads.add(Thread.ofPlatform().name("loadtest-client-" + i).start(() -> {
+                while (running.get()) {
+                    Traffic.Endpoint endpoint = traffic.next(random);
+                    long start = System.nanoTime();
+                    boolean ok;
+                    try {
+                        ok = client.send(traffic.request(endpoint, random), HttpResponse.BodyHandlers.discarding())
+                                .statusCode() < 400;
+                    } catch (IOException e) {
+                        ok = false;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    recorders.computeIfAbsent(endpoint, k -> new LatencyRecorder()).record(System.nanoTime() - start, ok);
+                }
+            }));
+        }
+        Thread.sleep(duration);
+        running.set(false);
+        for (Thread thread : threads) thread.join();
+        client.close();
+
+        Map<Traffic.Endpoint, LatencyRecorder> merged = new EnumMap<>(Traffic.Endpoint.class);
+        for (Map<Traffic.Endpoint, LatencyRecorder> recorders : perThread) {
+            recorders.forEach((endpoint, recorder) ->
+                    merged.computeIfAbsent(endpoint, k -> new LatencyRecorder()).merge(recorder));
+        }
+        return merged;
+    }
+
+    private static String format(String label, Map<Traffic.Endpoint, LatencyRecorder> results, double seconds) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream table = new PrintStream(out, true);
+        table.printf("%s (%.1fs)%n", label, seconds);
+        table.printf("%-8s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        LatencyRecorder total = new LatencyRecorder();
+        results.forEach((endpoint, recorder) -> {
+            row(table, endpoint.name().toLowerCase(), recorder.summarize(seconds));
+            total.merge(recorder);
+        });
+        row(table, "all", total.summarize(seconds));
+        return out.toString();
+    }
+
+    private static void row(PrintStream table, String name, LatencyRecorder.Summary s) {
+        table.printf("%-8s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, s.requests(), s.errors(), s.throughput(), s.p50(), s.p90(), s.p99(), s.p999(), s.max());
+    }
+}
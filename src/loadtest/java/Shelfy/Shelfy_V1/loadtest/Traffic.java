@@ -0,0 +1,81 @@
+package Shelfy.Shelfy_V1.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+// The request mix driven against the application, weighted per endpoint.
+final class Traffic {
+
+    enum Endpoint { SEARCH, GET, BRANDS, WRITE }
+
+    private final String baseUrl;
+    private final long products;
+    private final String adminToken;
+    private final Endpoint[] wheel;
+
+    Traffic(String baseUrl, long products, String adminToken, Map<Endpoint, Integer> weights) {
+        this.baseUrl = baseUrl;
+        this.products = products;
+        this.adminToken = adminToken;
+        this.wheel = weights.entrySet().stream()
+                .flatMap(e -> Stream.generate(e::getKey).limit(e.getValue()))
+                .toArray(Endpoint[]::new);
+        if (wheel.length == 0) throw new IllegalArgumentException("mix must give at least one endpoint a weight");
+    }
+
+    // Parse a mix like "search=60,get=25,brands=10,write=5".
+    static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] kv = part.trim().split("=");
+            weights.put(Endpoint.valueOf(kv[0].trim().toUpperCase()), Integer.parseInt(kv[1].trim()));
+        }
+        return weights;
+    }
+
+    Endpoint next(SplittableRandom random) {
+        return wheel[random.nextInt(wheel.length)];
+    }
+
+    HttpRequest request(Endpoint endpoint, SplittableRandom random) {
+        return switch (endpoint) {
+            // First page of a name search, sometimes narrowed to a brand or a price range
+            case SEARCH -> {
+                StringBuilder query = new StringBuilder("/products/search/page?size=20&name=")
+                        .append(CatalogSeeder.WORDS[random.nextInt(CatalogSeeder.WORDS.length)]);
+                switch (random.nextInt(3)) {
+                    case 0 -> query.append("&brand=Brand%20").append(random.nextInt(CatalogSeeder.BRANDS));
+                    case 1 -> query.append("&priceMin=2&priceMax=8");
+                    default -> { }
+                }
+                yield get(query.toString());
+            }
+            case GET -> get("/products/" + randomId(random));
+            case BRANDS -> get("/products/brands");
+            case WRITE -> {
+                long id = randomId(random);
+                String body = """
+                        {"name":"Updated Product %d","brand":"Brand %d","unit":"piece","defaultPrice":%d.%02d,\
+                        "imageUrl":"https://cdn.example.com/products/%d.jpg","active":true,"recommended":false}"""
+                        .formatted(id, id % CatalogSeeder.BRANDS, 1 + random.nextInt(20), random.nextInt(100), id);
+                yield HttpRequest.newBuilder(URI.create(baseUrl + "/products/" + id))
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+            }
+        };
+    }
+
+    private long randomId(SplittableRandom random) {
+        return 1 + random.nextLong(products);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+}
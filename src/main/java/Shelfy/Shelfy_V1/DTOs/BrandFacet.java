@@ -0,0 +1,5 @@
+package Shelfy.Shelfy_V1.DTOs;
+
+// Number of products carrying a brand.
+public record BrandFacet(String brand, long count) {
+}
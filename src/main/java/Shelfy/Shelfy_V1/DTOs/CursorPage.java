@@ -0,0 +1,12 @@
+package Shelfy.Shelfy_V1.DTOs;
+
+import java.util.List;
+
+// One page of a cursor-paginated listing.
+// nextCursor is null on the last page; total is only filled in when the client asked for a count.
+public record CursorPage<T>(
+    List<T> items,
+    String nextCursor,
+    Long total)
+    {
+}
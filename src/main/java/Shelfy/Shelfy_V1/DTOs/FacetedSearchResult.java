@@ -0,0 +1,10 @@
+package Shelfy.Shelfy_V1.DTOs;
+
+import java.util.List;
+
+// Search result together with the facet counts of that same result.
+public record FacetedSearchResult(
+    List<ProductDto> items,
+    SearchFacets facets)
+    {
+}
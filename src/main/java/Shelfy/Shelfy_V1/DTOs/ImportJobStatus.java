@@ -0,0 +1,21 @@
+package Shelfy.Shelfy_V1.DTOs;
+
+import java.time.Instant;
+import java.util.List;
+
+// Progress of a streaming catalog import, as returned by the import status resource.
+// PENDING jobs have been created but not uploaded yet, so format and startedAt are still null.
+public record ImportJobStatus(
+    String id,
+    State state,
+    String format,
+    long rowsRead,
+    long inserted,
+    long failed,
+    List<ImportSummary.RowError> errors,
+    Instant startedAt,
+    Instant finishedAt,
+    String message)
+    {
+        public enum State { PENDING, RUNNING, COMPLETED, FAILED }
+}
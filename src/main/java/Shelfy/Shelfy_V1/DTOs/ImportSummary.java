@@ -0,0 +1,31 @@
+package Shelfy.Shelfy_V1.DTOs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of a bulk product import: how many rows were stored, how many were rejected and why.
+// Row numbers are 1-based positions in the submitted data.
+public record ImportSummary(
+    int inserted,
+    int failed,
+    List<RowError> errors)
+    {
+        // Maximum number of row errors reported back; the failed count keeps counting past it.
+        public static final int MAX_REPORTED_ERRORS = 100;
+
+        public record RowError(long row, String message) {}
+
+        public static ImportSummary empty() {
+            return new ImportSummary(0, 0, List.of());
+        }
+
+        // Combine two summaries, e.g. of consecutive chunks.
+        public ImportSummary plus(ImportSummary other) {
+            List<RowError> merged = new ArrayList<>(errors);
+            for (RowError error : other.errors) {
+                if (merged.size() >= MAX_REPORTED_ERRORS) break;
+                merged.add(error);
+            }
+            return new ImportSummary(inserted + other.inserted, failed + other.failed, List.copyOf(merged));
+        }
+}
@@ -0,0 +1,5 @@
+package Shelfy.Shelfy_V1.DTOs;
+
+// Number of products carrying a name.
+public record NameCount(String name, long count) {
+}
@@ -0,0 +1,41 @@
+package Shelfy.Shelfy_V1.DTOs;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Facet aggregates over a search result: products per brand, recommended vs. not recommended,
+// and a price histogram with fixed-width buckets.
+public record SearchFacets(
+    List<BrandFacet> brands,
+    long recommended,
+    long notRecommended,
+    List<PriceBucket> prices)
+    {
+        // Products priced in [from, to).
+        public record PriceBucket(BigDecimal from, BigDecimal to, long count) {}
+
+        // Compute all facets in a single pass over the products.
+        public static SearchFacets of(List<ProductDto> products, BigDecimal bucketWidth) {
+            Map<String, Long> brandCounts = new TreeMap<>();
+            Map<BigDecimal, Long> bucketCounts = new TreeMap<>();
+            long recommended = 0;
+            for (ProductDto p : products) {
+                if (p.brand() != null) brandCounts.merge(p.brand(), 1L, Long::sum);
+                if (p.recommended()) recommended++;
+                if (p.defaultPrice() != null) {
+                    BigDecimal from = p.defaultPrice().divide(bucketWidth, 0, RoundingMode.FLOOR).multiply(bucketWidth);
+                    bucketCounts.merge(from, 1L, Long::sum);
+                }
+            }
+
+            List<BrandFacet> brands = new ArrayList<>(brandCounts.size());
+            brandCounts.forEach((brand, count) -> brands.add(new BrandFacet(brand, count)));
+            List<PriceBucket> prices = new ArrayList<>(bucketCounts.size());
+            bucketCounts.forEach((from, count) -> prices.add(new PriceBucket(from, from.add(bucketWidth), count)));
+            return new SearchFacets(brands, recommended, products.size() - recommended, prices);
+        }
+}
@@ -0,0 +1,11 @@
+package Shelfy.Shelfy_V1.DTOs;
+
+// One SQL statement in the slow query report, with its aggregated execution times.
+public record SlowQuery(
+        String sql,
+        long executions,
+        long failures,
+        double totalMillis,
+        double meanMillis,
+        double maxMillis) {
+}
@@ -0,0 +1,7 @@
+package Shelfy.Shelfy_V1.DTOs;
+
+// One typeahead completion: a product name or a brand.
+public record Suggestion(String text, Type type) {
+
+    public enum Type { PRODUCT, BRAND }
+}
@@ -0,0 +1,207 @@
+package Shelfy.Shelfy_V1.cache;
+
+import Shelfy.Shelfy_V1.events.ProductChangeListener;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Version of the product catalog, read from the catalog_version row that every product write bumps once per
+// transaction (V6, V7 triggers), so all instances agree on it. Catalog responses use it as their validator:
+// as long as the version is unchanged, a client's copy is still current and gets a 304. ETags are weak,
+// because compression may change the bytes on the wire.
+// An instance only hands out a version once everything it serves from memory (product cache, search index,
+// suggester, brand dictionary) reflects every write up to it:
+// - a write made here claims its version before it commits and counts once the change feed delivered it;
+// - any other version was written by another instance or outside the application. Nothing here knows
+//   what it changed, so every change listener is reloaded from one snapshot of the catalog, in the
+//   background. Until that is done the previous version is handed out, along with the content it belongs to.
+// The row is re-read at most every shelfy.cache.catalog-version.refresh, which bounds how long a write made
+// elsewhere can still be answered with a 304 here, on top of the reload.
+@Component
+public class CatalogVersion {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogVersion.class);
+
+    private static final String SELECT_VERSION = "SELECT version FROM catalog_version WHERE id = 1";
+
+    // Validator of the catalog at one version.
+    public record Stamp(long version, String etag) {
+
+        public static Stamp of(long version) {
+            return new Stamp(version, "W/\"catalog-" + version + "\"");
+        }
+    }
+
+    // The result of a catalog read and the validator it is at least as new as.
+    public record Read<T>(Stamp stamp, T body) {
+    }
+
+    private record Cached(Stamp stamp, long generation, long readAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<ProductChangeListener> listeners;
+    // Reloads read the version and the catalog from one snapshot, on the primary
+    private final TransactionTemplate snapshot;
+    // Null without read replicas
+    private final TransactionTemplate replicaReads;
+    private final long refreshNanos;
+    private final ExecutorService reloader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "catalog-reloader");
+        t.setDaemon(true);
+        return t;
+    });
+    // Versions claimed by transactions of this instance that have not been delivered yet
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    // Versions of this instance's writes that were delivered, above known
+    private final Set<Long> delivered = ConcurrentHashMap.newKeySet();
+    // Counts delivered writes and reloads, so a read that raced one is not kept
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Cached cached;
+    // Every write up to this version is reflected in memory; guarded by this
+    private long known;
+    private boolean reloading;
+
+    public CatalogVersion(JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          ObjectProvider<ProductChangeListener> listeners,
+                          @Value("${shelfy.cache.catalog-version.refresh:1s}") Duration refresh,
+                          @Value("${shelfy.datasource.replica.urls:}") String replicaUrls) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.listeners = listeners;
+        this.snapshot = new TransactionTemplate(transactionManager);
+        this.snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        if (replicaUrls.isBlank()) {
+            this.replicaReads = null;
+        } else {
+            this.replicaReads = new TransactionTemplate(transactionManager);
+            this.replicaReads.setReadOnly(true);
+        }
+        this.refreshNanos = refresh.toNanos();
+    }
+
+    // Load the in-memory structures once the application has started.
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (this) {
+            // A request may have started the first reload already
+            if (reloading) return;
+            reloading = true;
+        }
+        reload();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        reloader.shutdownNow();
+    }
+
+    public Stamp current() {
+        Cached c = cached;
+        if (c != null && c.generation() == generation.get() && System.nanoTime() - c.readAt() < refreshNanos) {
+            return c.stamp();
+        }
+        return refresh();
+    }
+
+    // Run a catalog read and return it with its validator. Without read replicas every read sees at least
+    // the stamp's version. With them, the read runs in one read-only transaction that first reads the
+    // version of the replica serving it, and a replica that is behind gets its own, older validator.
+    public <T> Read<T> read(Stamp stamp, Supplier<T> body) {
+        if (replicaReads == null) {
+            return new Read<>(stamp, body.get());
+        }
+        return replicaReads.execute(status -> {
+            long served = jdbcTemplate.queryForObject(SELECT_VERSION, Long.class);
+            return new Read<>(served < stamp.version() ? Stamp.of(served) : stamp, body.get());
+        });
+    }
+
+    // Claim the catalog version of the current transaction's product writes. It counts as in flight, and
+    // is not handed out, until the changes are delivered here or the transaction rolls back.
+    public long claim() {
+        long version = jdbcTemplate.queryForObject("SELECT claim_catalog_version()", Long.class);
+        inFlight.add(version);
+        return version;
+    }
+
+    // The changes of a claimed version were delivered to every listener.
+    public void committed(long version) {
+        delivered.add(version);
+        inFlight.remove(version);
+        generation.incrementAndGet();
+    }
+
+    // The transaction that claimed the version rolled back; the version will be claimed again.
+    public void abandoned(long version) {
+        inFlight.remove(version);
+    }
+
+    // Read the stored version and advance over the versions of delivered local writes. A version that is
+    // neither delivered nor in flight came from elsewhere and starts a reload.
+    private synchronized Stamp refresh() {
+        long gen = generation.get();
+        long readAt = System.nanoTime();
+        long latest = jdbcTemplate.queryForObject(SELECT_VERSION, Long.class);
+        advance();
+        if (known < latest && !inFlight.contains(known + 1) && !reloading) {
+            reloading = true;
+            reloader.execute(this::reload);
+        }
+        Stamp stamp = Stamp.of(known);
+        cached = new Cached(stamp, gen, readAt);
+        return stamp;
+    }
+
+    // Reload every listener from one snapshot of the catalog, then hand out the snapshot's version.
+    // Changes delivered meanwhile are buffered by the listeners and applied on top of the snapshot.
+    private void reload() {
+        try {
+            List<ProductChangeListener> targets = listeners.orderedStream().toList();
+            targets.forEach(ProductChangeListener::reloading);
+            long version = snapshot.execute(status -> {
+                long v = jdbcTemplate.queryForObject(SELECT_VERSION, Long.class);
+                targets.forEach(listener -> listener.reload(v));
+                return v;
+            });
+            synchronized (this) {
+                known = Math.max(known, version);
+                delivered.removeIf(v -> v <= known);
+                advance();
+            }
+            generation.incrementAndGet();
+            log.debug("Reloaded the catalog at version {}", version);
+        } catch (RuntimeException e) {
+            log.error("Could not reload the catalog, retrying on the next refresh", e);
+        } finally {
+            synchronized (this) {
+                reloading = false;
+            }
+        }
+    }
+
+    // Caller holds the monitor.
+    private void advance() {
+        while (delivered.remove(known + 1)) {
+            known++;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package Shelfy.Shelfy_V1.cache;
+
+import Shelfy.Shelfy_V1.DTOs.ProductDto;
+import Shelfy.Shelfy_V1.events.ProductChangeEvent;
+import Shelfy.Shelfy_V1.events.ProductChangeListener;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+// Two-tier cache of products by id.
+// Tier one is a bounded in-process Caffeine cache (size and TTL eviction, hit/miss/eviction metrics
+// under cache.* with cache=products). Tier two is an optional ProductCacheTier bean shared between nodes.
+// Entries are evicted from the product change feed after every committed write; the TTL bounds
+// staleness from a read that raced with a write. A reload, after writes made on another instance, drops the
+// whole local tier: which products those writes touched is not known here. Products written here are
+// remembered for shelfy.datasource.replica.max-lag, and after a reload all of them are, so ProductService
+// loads them from the primary rather than from a replica that may not have the write yet.
+@Component
+@Order(0)
+public class ProductCache implements ProductChangeListener {
+
+    private final Cache<Long, ProductDto> local;
+    private final Cache<Long, Boolean> recentWrites;
+    private final ProductCacheTier shared;
+    private final long replicaMaxLagNanos;
+    // Every product is loaded from the primary until then
+    private volatile long primaryReadsUntil = System.nanoTime();
+
+    public ProductCache(@Value("${shelfy.cache.products.maximum-size:10000}") long maximumSize,
+                        @Value("${shelfy.cache.products.ttl:10m}") Duration ttl,
+                        @Value("${shelfy.datasource.replica.max-lag:10s}") Duration replicaMaxLag,
+                        ObjectProvider<ProductCacheTier> sharedTier,
+                        MeterRegistry meterRegistry) {
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.recentWrites = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(replicaMaxLag)
+                .build();
+        this.shared = sharedTier.getIfAvailable();
+        this.replicaMaxLagNanos = replicaMaxLag.toNanos();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "products");
+    }
+
+    // Look a product up in both tiers, loading and caching it on a miss.
+    // Concurrent misses for the same id share a single load; loader exceptions are not cached.
+    public ProductDto get(Long id, Function<Long, ProductDto> loader) {
+        return local.get(id, key -> {
+            if (shared != null) {
+                Optional<ProductDto> remote = shared.get(key);
+                if (remote.isPresent()) return remote.get();
+            }
+            ProductDto loaded = loader.apply(key);
+            if (shared != null) shared.put(key, loaded);
+            return loaded;
+        });
+    }
+
+    // Whether the product may have been written recently enough that a replica still misses the write.
+    public boolean readFromPrimary(Long id) {
+        return System.nanoTime() - primaryReadsUntil < 0 || recentWrites.getIfPresent(id) != null;
+    }
+
+    // Follow the product change feed.
+    @Override
+    public void onProductChange(ProductChangeEvent event) {
+        recentWrites.put(event.productId(), Boolean.TRUE);
+        evict(event.productId());
+    }
+
+    // The catalog changed behind the change feed. Entries in the shared tier were evicted by the instance
+    // that made the change.
+    @Override
+    public void reload(long catalogVersion) {
+        primaryReadsUntil = System.nanoTime() + replicaMaxLagNanos;
+        local.invalidateAll();
+    }
+
+    public void evict(Long id) {
+        local.invalidate(id);
+        if (shared != null) shared.evict(id);
+    }
+}
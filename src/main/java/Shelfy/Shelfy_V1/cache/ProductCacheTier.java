@@ -0,0 +1,17 @@
+package Shelfy.Shelfy_V1.cache;
+
+import Shelfy.Shelfy_V1.DTOs.ProductDto;
+
+import java.util.Optional;
+
+// Optional second cache tier behind the in-process product cache, e.g. a shared store for
+// multi-node deployments. Register an implementation as a bean to enable it.
+// Implementations must be thread-safe and should fail soft (return empty / ignore) when unavailable.
+public interface ProductCacheTier {
+
+    Optional<ProductDto> get(Long id);
+
+    void put(Long id, ProductDto product);
+
+    void evict(Long id);
+}
@@ -0,0 +1,78 @@
+package Shelfy.Shelfy_V1.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Configuration for read replicas, active only when shelfy.datasource.replica.urls is set.
+// Replaces the auto-configured DataSource with a LazyConnectionDataSourceProxy over the primary whose
+// read-only connections come from the replicas. Connections are fetched on the first statement, after
+// the transaction manager has marked them read-only, so @Transactional(readOnly = true) work
+// (searches, brands, product lookups) lands on a replica and writes stay on the primary.
+@Configuration
+@ConditionalOnExpression("!'${shelfy.datasource.replica.urls:}'.isBlank()")
+public class ReadReplicaConfig {
+
+    // The primary pool, configured exactly like the default one (spring.datasource.*).
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReadReplicaDataSource replicaDataSource(HikariDataSource primaryDataSource,
+                                                  DataSourceProperties properties,
+                                                  @Value("${shelfy.datasource.replica.urls}") List<String> urls,
+                                                  @Value("${shelfy.datasource.replica.username:}") String username,
+                                                  @Value("${shelfy.datasource.replica.password:}") String password,
+                                                  @Value("${shelfy.datasource.replica.maximum-pool-size:10}") int poolSize,
+                                                  @Value("${shelfy.datasource.replica.selection:round-robin}") String selection,
+                                                  @Value("${shelfy.datasource.replica.retry-after:30s}") Duration retryAfter,
+                                                  ObjectProvider<MeterRegistry> meterRegistry) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(urls.get(i).trim());
+            replica.setUsername(username.isBlank() ? properties.determineUsername() : username);
+            replica.setPassword(username.isBlank() ? properties.determinePassword() : password);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setDataSourceProperties(primaryDataSource.getDataSourceProperties());
+            replica.setMaximumPoolSize(poolSize);
+            replica.setConnectionTimeout(primaryDataSource.getConnectionTimeout());
+            replica.setReadOnly(true);
+            // Start without connecting, so an unreachable replica cannot prevent startup
+            replica.setInitializationFailTimeout(-1);
+            // The replica pools are not beans, so Boot does not bind their hikaricp.* metrics itself
+            meterRegistry.ifAvailable(registry -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.add(replica);
+        }
+        return new ReadReplicaDataSource(primaryDataSource, replicas,
+                ReadReplicaDataSource.Selection.valueOf(selection.toUpperCase(Locale.ROOT).replace('-', '_')),
+                retryAfter);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReadReplicaDataSource replicaDataSource) {
+        var proxy = new LazyConnectionDataSourceProxy(primaryDataSource);
+        proxy.setReadOnlyDataSource(replicaDataSource);
+        return proxy;
+    }
+}
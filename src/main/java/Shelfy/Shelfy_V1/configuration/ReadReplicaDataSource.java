@@ -0,0 +1,91 @@
+package Shelfy.Shelfy_V1.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// DataSource spreading read-only connections over a set of replicas.
+// Replicas are picked round-robin or by fewest active connections. A replica that fails to hand out
+// a connection is skipped for a while; when no replica is usable the primary serves the read.
+public class ReadReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    public enum Selection { ROUND_ROBIN, LEAST_LOADED }
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final Selection selection;
+    private final long retryAfterNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    // System.nanoTime() until which each replica is considered down; 0 when healthy
+    private final AtomicLongArray downUntil;
+
+    public ReadReplicaDataSource(DataSource primary, List<? extends DataSource> replicas,
+                                 Selection selection, Duration retryAfter) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.selection = selection;
+        this.retryAfterNanos = retryAfter.toNanos();
+        this.downUntil = new AtomicLongArray(replicas.size());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        for (int i : candidates()) {
+            try {
+                return replicas.get(i).getConnection();
+            } catch (SQLException e) {
+                logger.warn("Replica " + i + " unavailable, trying the next data source", e);
+                downUntil.set(i, System.nanoTime() + retryAfterNanos);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // Explicit credentials are only used for administrative work, which belongs on the primary
+        return primary.getConnection(username, password);
+    }
+
+    // Close the replica pools; the primary is a bean of its own and closed by the container.
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) closeable.close();
+        }
+    }
+
+    // Healthy replicas in the order they should be tried.
+    private List<Integer> candidates() {
+        if (replicas.isEmpty()) return List.of();
+        long now = System.nanoTime();
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        List<Integer> order = new ArrayList<>(replicas.size());
+        for (int k = 0; k < replicas.size(); k++) {
+            int i = (start + k) % replicas.size();
+            long until = downUntil.get(i);
+            if (until == 0 || now - until >= 0) order.add(i);
+        }
+        if (selection == Selection.LEAST_LOADED) {
+            // Stable sort, so replicas with equal load keep their round-robin order
+            order.sort(Comparator.comparingInt(this::activeConnections));
+        }
+        return order;
+    }
+
+    private int activeConnections(int replica) {
+        if (replicas.get(replica) instanceof HikariDataSource hikari && hikari.getHikariPoolMXBean() != null) {
+            return hikari.getHikariPoolMXBean().getActiveConnections();
+        }
+        return 0;
+    }
+}
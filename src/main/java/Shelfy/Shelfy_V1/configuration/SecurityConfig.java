@@ -1,17 +1,27 @@
 package Shelfy.Shelfy_V1.configuration;
 
 import Shelfy.Shelfy_V1.filters.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -27,7 +37,56 @@ public class SecurityConfig {
         this.jwtFilter = jwtFilter;
     }
 
+    // Prometheus scrapes authenticate over HTTP basic with their own static credential and METRICS role, so a
+    // scrape job needs neither a user account nor a token that expires; user tokens are not accepted here.
+    // The password is stored encoded ({bcrypt}... or {noop}...). Without one, every scrape gets a 401.
     @Bean
+    @Order(0)
+    public SecurityFilterChain metricsScrapeFilterChain(HttpSecurity http,
+                                                        @Value("${security.metrics.scrape.username:prometheus}") String username,
+                                                        @Value("${security.metrics.scrape.password:}") String password) throws Exception {
+        InMemoryUserDetailsManager scrapers = new InMemoryUserDetailsManager();
+        if (!password.isBlank()) {
+            if (!password.startsWith("{")) {
+                throw new IllegalStateException(
+                        "security.metrics.scrape.password must be encoded, e.g. {bcrypt}$2a$10$... or {noop}secret");
+            }
+            scrapers.createUser(User.withUsername(username).password(password).roles("METRICS").build());
+        }
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(scrapers);
+        provider.setPasswordEncoder(PasswordEncoderFactories.createDelegatingPasswordEncoder());
+        http
+                .securityMatchers(matchers -> matchers
+                        .requestMatchers("/actuator/prometheus/**", "/api/actuator/prometheus/**"))
+                .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authenticationManager(new ProviderManager(provider))
+                .authorizeHttpRequests(auth -> auth.anyRequest().hasRole("METRICS"))
+                .httpBasic(Customizer.withDefaults());
+        return http.build();
+    }
+
+    // Lightweight chain for the public catalog (GET /products/**), which is the bulk of our traffic.
+    // Nothing here needs an identity, so it skips JWT parsing, SecurityContext handling, sessions,
+    // CSRF, request caching and anonymous authentication; only CORS and security headers remain.
+    @Bean
+    @Order(1)
+    public SecurityFilterChain publicCatalogFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatchers(matchers -> matchers.requestMatchers(HttpMethod.GET, "/products/**"))
+                .cors(Customizer.withDefaults())
+                .csrf(AbstractHttpConfigurer::disable)
+                .sessionManagement(AbstractHttpConfigurer::disable)
+                .securityContext(AbstractHttpConfigurer::disable)
+                .requestCache(AbstractHttpConfigurer::disable)
+                .anonymous(AbstractHttpConfigurer::disable)
+                .servletApi(AbstractHttpConfigurer::disable)
+                .logout(AbstractHttpConfigurer::disable);
+        return http.build();
+    }
+
+    @Bean
+    @Order(2)
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         // Configure HTTP security settings
         http
@@ -39,9 +98,15 @@ public class SecurityConfig {
                 .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 // Define authorization rules
                 .authorizeHttpRequests(auth -> auth
+                        // Let error dispatches through, otherwise statuses like 404 or 429 turn into 401
+                        .dispatcherTypeMatchers(DispatcherType.ERROR).permitAll()
                         .requestMatchers(HttpMethod.POST, "/auth/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/auth/me").permitAll()
                         .requestMatchers(HttpMethod.GET, "/products/**").permitAll()
+                        // The slow query report shows SQL, so only administrators may read or reset it
+                        .requestMatchers("/actuator/slowqueries/**", "/api/actuator/slowqueries/**").hasRole("ADMIN")
+                        // Metrics are served by metricsScrapeFilterChain only, never on a user token
+                        .requestMatchers("/actuator/prometheus/**", "/api/actuator/prometheus/**").denyAll()
                         .requestMatchers("/actuator/**", "/api/actuator/**").permitAll()
                         .anyRequest().authenticated()
                 )
@@ -56,10 +121,19 @@ public class SecurityConfig {
     }
 
 
-    // Define a bean for password encoding using BCrypt.
+    // The JWT filter is a @Component, which Spring Boot would also register as a servlet filter for
+    // every request. Keep it inside the security chain only, so the public chain really bypasses it.
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtFilterRegistration(JwtAuthenticationFilter filter) {
+        var registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    // Define a bean for password encoding using BCrypt, timed so slow logins can be traced to hashing.
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
     }
 
 
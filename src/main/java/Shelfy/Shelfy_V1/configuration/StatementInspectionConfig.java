@@ -0,0 +1,37 @@
+package Shelfy.Shelfy_V1.configuration;
+
+import Shelfy.Shelfy_V1.sql.StatementRecorder;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+// Routes every statement through datasource-proxy so StatementRecorder can time it.
+// Wraps the bean named dataSource, which is the auto-configured pool or, with read replicas, the
+// routing proxy from ReadReplicaConfig; either way JPA, Flyway and JDBC all go through it.
+// Set shelfy.sql.inspection.enabled=false to run without the proxy.
+@Configuration
+@ConditionalOnProperty(name = "shelfy.sql.inspection.enabled", havingValue = "true", matchIfMissing = true)
+public class StatementInspectionConfig {
+
+    // Static, so the post-processor exists before the DataSource it wraps is created.
+    @Bean
+    public static BeanPostProcessor statementInspectingDataSource(ObjectProvider<StatementRecorder> recorder) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || !"dataSource".equals(beanName)) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(recorder.getObject())
+                        .build();
+            }
+        };
+    }
+}
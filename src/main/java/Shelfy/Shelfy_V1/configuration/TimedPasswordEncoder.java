@@ -0,0 +1,50 @@
+package Shelfy.Shelfy_V1.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+// PasswordEncoder that records how long hashing and checks take as shelfy.auth.password
+// (operation=encode|matches, outcome=match|mismatch for checks). BCrypt is deliberately slow,
+// so this is usually where login time goes.
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Timer mismatchTimer;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.encodeTimer = timer(registry, "encode", "success");
+        this.matchTimer = timer(registry, "matches", "match");
+        this.mismatchTimer = timer(registry, "matches", "mismatch");
+    }
+
+    private static Timer timer(MeterRegistry registry, String operation, String outcome) {
+        return Timer.builder("shelfy.auth.password")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encodeTimer.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        (matches ? matchTimer : mismatchTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -1,9 +1,8 @@
 package Shelfy.Shelfy_V1.controllers;
 
 import Shelfy.Shelfy_V1.services.JwtService;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import Shelfy.Shelfy_V1.services.LoginService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -21,29 +20,37 @@ import org.springframework.http.ResponseCookie;
 import org.springframework.http.HttpHeaders;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 // Controller for handling authentication-related endpoints.
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
 
-    private final AuthenticationManager authManager;
+    private final LoginService loginService;
     private final JwtService jwtService;
     private final UserDetailsService users;
 
-    public AuthController(AuthenticationConfiguration config, JwtService jwtService, UserDetailsService userDetailsService) throws Exception {
-        this.authManager = config.getAuthenticationManager();
+    public AuthController(LoginService loginService, JwtService jwtService, UserDetailsService userDetailsService) {
+        this.loginService = loginService;
         this.jwtService = jwtService;
         this.users = userDetailsService;
     }
 
     // Cookies are sameSite=lax such that the frontend is forced to go through a proxy to keep the cookies during site changes
     // Endpoint for user login. Authenticates the user and returns JWT tokens in HttpOnly cookies.
+    // Password verification runs on the login pool, so the request thread is released while BCrypt works.
+    // getRemoteAddr is the client's address: behind a trusted proxy, Tomcat takes it from X-Forwarded-For
+    // (server.forward-headers-strategy=native), so the per-IP limit applies per client, not per proxy.
     @PostMapping("/login")
-    public ResponseEntity<Void> login(@RequestBody LoginRequest req) {
+    public CompletableFuture<ResponseEntity<Void>> login(@RequestBody LoginRequest req, HttpServletRequest request) {
         // Authenticate the user using the provided username and password
-        Authentication auth = authManager.authenticate(
-                new UsernamePasswordAuthenticationToken(req.username(), req.password()));
+        return loginService.authenticate(req.username(), req.password(), request.getRemoteAddr())
+                .thenApply(this::issueTokens);
+    }
+
+    // Build the access and refresh token cookies for a successfully authenticated user.
+    private ResponseEntity<Void> issueTokens(Authentication auth) {
         // If authentication is successful, generate JWT tokens
         var user = (UserDetails) auth.getPrincipal();
         var roles = user.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
@@ -116,6 +123,10 @@ public class AuthController {
         // Generate new access and refresh tokens
         String username = claims.getSubject();
         var user = users.loadUserByUsername(username);
+        // A disabled account must not get new tokens, even with a valid refresh token
+        if (!user.isEnabled()) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Account disabled");
+        }
         var roles = user.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
         String access = jwtService.generateAccessToken(username, roles);
         String refresh = jwtService.generateRefreshToken(username);
@@ -153,6 +164,9 @@ public class AuthController {
             var claims = jwtService.parse(accessToken).getPayload();
             String username = claims.getSubject();
             var user = users.loadUserByUsername(username);
+            if (!user.isEnabled()) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Account disabled");
+            }
             var roles = user.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
             return ResponseEntity.ok(Map.of(
                 "username", username,
@@ -1,53 +1,223 @@
 package Shelfy.Shelfy_V1.controllers;
 
 
+import Shelfy.Shelfy_V1.DTOs.BrandFacet;
+import Shelfy.Shelfy_V1.DTOs.CursorPage;
+import Shelfy.Shelfy_V1.DTOs.FacetedSearchResult;
+import Shelfy.Shelfy_V1.DTOs.ImportSummary;
 import Shelfy.Shelfy_V1.DTOs.ProductDto;
+import Shelfy.Shelfy_V1.DTOs.Suggestion;
+import Shelfy.Shelfy_V1.cache.CatalogVersion;
 import Shelfy.Shelfy_V1.entities.Product;
+import Shelfy.Shelfy_V1.search.ProductFilter;
 import Shelfy.Shelfy_V1.services.ProductService;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.function.Supplier;
 
 // REST controller for managing products.
 @RestController
 @RequestMapping("/products")
 public class ProductController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SUGGESTIONS = 20;
+
     private final ProductService productService;
+    private final ObjectMapper objectMapper;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ObjectMapper objectMapper) {
         this.productService = productService;
+        this.objectMapper = objectMapper;
     }
 
 
     @GetMapping("/{id}")
-    public ProductDto getProductById(@PathVariable long id) {
-        Product product = productService.getProductById(id);
-        return ProductDto.from(product);
+    public ResponseEntity<ProductDto> getProductById(@PathVariable long id, WebRequest request) {
+        return conditional(request, () -> productService.findProductById(id));
     }
 
+    // mode=substring (default) matches the name as a substring; mode=fulltext matches every word of name
+    // as a prefix against name and brand and ranks the results by relevance.
     @GetMapping("/search")
-    public List<Product> getProductsByName(
+    public ResponseEntity<List<ProductDto>> getProductsByName(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) Boolean recommended,
             @RequestParam(required = false) List<String> brand,
             @RequestParam(required = false) BigDecimal priceMin,
             @RequestParam(required = false) BigDecimal priceMax,
+            @RequestParam(defaultValue = "substring") String mode,
+            org.springframework.data.domain.Sort sort,
+            WebRequest request
+    ) {
+        if ("fulltext".equalsIgnoreCase(mode)) {
+            ProductFilter filter = ProductFilter.of(name, brand, priceMin, priceMax, recommended);
+            return conditional(request, () -> productService.findProductsByFullText(filter, sort));
+        }
+        if (!"substring".equalsIgnoreCase(mode)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "mode must be substring or fulltext");
+        }
+        return conditional(request,
+                () -> productService.findProductsByName(name, brand, priceMin, priceMax, recommended, sort));
+    }
+
+
+    // Typeahead for the search box: the most common product names and brands containing a word that starts
+    // with q. With shelfy.search.suggest.enabled it is answered from memory, cheap enough for every keystroke.
+    @GetMapping("/suggest")
+    public List<Suggestion> suggest(@RequestParam String q,
+                                    @RequestParam(defaultValue = "8") int limit) {
+        return productService.suggest(q, Math.min(Math.max(limit, 1), MAX_SUGGESTIONS));
+    }
+
+    // /search plus brand, recommended and price-bucket counts over the same result.
+    @GetMapping("/search/faceted")
+    public FacetedSearchResult getProductsWithFacets(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Boolean recommended,
+            @RequestParam(required = false) List<String> brand,
+            @RequestParam(required = false) BigDecimal priceMin,
+            @RequestParam(required = false) BigDecimal priceMax,
+            @RequestParam(defaultValue = "5") BigDecimal priceBucket,
             org.springframework.data.domain.Sort sort
     ) {
-        return productService.findProductsByName(name, brand, priceMin, priceMax, recommended, sort);
+        ProductFilter filter = ProductFilter.of(name, brand, priceMin, priceMax, recommended);
+        return productService.findProductsWithFacets(filter, sort, priceBucket);
     }
 
+    // Streaming variant of /search for large result sets. Rows are read from a database cursor and
+    // written as they arrive, either as one JSON array (format=json) or one object per line (format=ndjson).
+    @GetMapping("/search/stream")
+    public ResponseEntity<StreamingResponseBody> streamProductsByName(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Boolean recommended,
+            @RequestParam(required = false) List<String> brand,
+            @RequestParam(required = false) BigDecimal priceMin,
+            @RequestParam(required = false) BigDecimal priceMax,
+            @RequestParam(defaultValue = "json") String format,
+            org.springframework.data.domain.Sort sort
+    ) {
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        ProductFilter filter = ProductFilter.of(name, brand, priceMin, priceMax, recommended);
+        // Leave flushing and closing of the response stream to the servlet container
+        var writer = objectMapper.writerFor(ProductDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        StreamingResponseBody body = out -> {
+            if (ndjson) {
+                productService.streamProductsByName(filter, sort, dto -> {
+                    try {
+                        writer.writeValue(out, dto);
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } else {
+                try (SequenceWriter rows = writer.writeValuesAsArray(out)) {
+                    productService.streamProductsByName(filter, sort, dto -> {
+                        try {
+                            rows.write(dto);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
 
+    // Cursor-paginated variant of /search. Pass the returned nextCursor back to get the following page;
+    // the total is only computed when count=true.
+    @GetMapping("/search/page")
+    public CursorPage<ProductDto> getProductsPage(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Boolean recommended,
+            @RequestParam(required = false) List<String> brand,
+            @RequestParam(required = false) BigDecimal priceMin,
+            @RequestParam(required = false) BigDecimal priceMax,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean count,
+            org.springframework.data.domain.Sort sort
+    ) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        ProductFilter filter = ProductFilter.of(name, brand, priceMin, priceMax, recommended);
+        return productService.findProductsPage(filter, sort, cursor, pageSize, count);
+    }
+
+
+    // Brands are served from memory and validated by the catalog version, so clients can revalidate and
+    // get a 304.
     @GetMapping("/brands")
-    public List<String> getAllUniqueBrands() {
-        return productService.getAllUniqueBrands();
+    public ResponseEntity<List<String>> getAllUniqueBrands(WebRequest request) {
+        return conditional(request, productService::getAllUniqueBrands);
+    }
+
+    // Product count per brand, usable as a facet.
+    @GetMapping("/brands/facets")
+    public ResponseEntity<List<BrandFacet>> getBrandFacets(WebRequest request) {
+        return conditional(request, productService::getBrandFacets);
+    }
+
+    // Catalog response validated by the catalog version. The 304 check runs before the body is computed,
+    // so an unchanged catalog costs neither a cache lookup nor a query. The version is read first and this
+    // instance only hands out versions its in-memory state has caught up with, so a write racing with the
+    // lookup can only make the body newer than its ETag, which costs one extra refetch.
+    // No Last-Modified: at one-second resolution it cannot tell apart two writes in the same second, so a
+    // client validating with If-Modified-Since alone could be told a stale copy is current.
+    private <T> ResponseEntity<T> conditional(WebRequest request, Supplier<T> body) {
+        CatalogVersion.Stamp stamp = productService.getCatalogStamp();
+        if (matchesIfNoneMatch(request, stamp.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(CacheControl.noCache())
+                    .eTag(stamp.etag())
+                    .build();
+        }
+        CatalogVersion.Read<T> read = productService.readCatalog(stamp, body);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(read.stamp().etag())
+                .body(read.body());
+    }
+
+    // Weak comparison against every entity tag in If-None-Match. Not WebRequest.checkNotModified, which
+    // puts its ETag on a 200 as well, where the read may have come with an older one.
+    private static boolean matchesIfNoneMatch(WebRequest request, String etag) {
+        String[] headers = request.getHeaderValues(HttpHeaders.IF_NONE_MATCH);
+        if (headers == null) return false;
+        String opaque = etag.substring(2);
+        for (String header : headers) {
+            for (String candidate : header.split(",")) {
+                String tag = candidate.strip();
+                if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(opaque)) return true;
+            }
+        }
+        return false;
     }
 
 
@@ -55,10 +225,15 @@ public class ProductController {
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping
     public ResponseEntity<List<Product>> addProduct(@RequestBody List<Product> products) {
-        for (Product product : products) {
-            productService.addProduct(product);
-        }
-        return new ResponseEntity<>(products, HttpStatus.CREATED);
+        List<Product> saved = productService.addProducts(products);
+        return new ResponseEntity<>(saved, HttpStatus.CREATED);
+    }
+
+    // Bulk import for large catalog loads: stored in chunked transactions, bad rows are skipped and reported.
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/bulk")
+    public ResponseEntity<ImportSummary> importProducts(@RequestBody List<Product> products) {
+        return new ResponseEntity<>(productService.importProducts(products), HttpStatus.CREATED);
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -0,0 +1,69 @@
+package Shelfy.Shelfy_V1.controllers;
+
+import Shelfy.Shelfy_V1.DTOs.ImportJobStatus;
+import Shelfy.Shelfy_V1.services.ProductImportService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.util.Locale;
+
+// REST controller for streaming catalog imports. Lives under /admin so it is never publicly readable.
+@RestController
+@RequestMapping("/admin/imports")
+public class ProductImportController {
+
+    private final ProductImportService importService;
+
+    public ProductImportController(ProductImportService importService) {
+        this.importService = importService;
+    }
+
+    // Create an import job without a body. Upload the catalog with PUT to the returned location and
+    // poll that same location for progress meanwhile.
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping
+    public ResponseEntity<ImportJobStatus> createImport() {
+        ImportJobStatus status = importService.create();
+        var location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(status.id()).toUri();
+        return ResponseEntity.created(location).body(status);
+    }
+
+    // Upload the CSV (text/csv) or NDJSON (application/x-ndjson) catalog of a created job.
+    // The body is read incrementally, so it is not bound with @RequestBody.
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping(path = "/{id}", consumes = {"text/csv", "application/x-ndjson"})
+    public ImportJobStatus uploadImport(@PathVariable String id, HttpServletRequest request) throws IOException {
+        return importService.upload(id, request.getInputStream(), format(request));
+    }
+
+    // Create a job and import the raw request body in one request. The job id is only returned once the
+    // body has been read, so clients that want to follow progress should use POST + PUT instead.
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportJobStatus> startImport(HttpServletRequest request) throws IOException {
+        ImportJobStatus status = importService.importStream(request.getInputStream(), format(request));
+        var location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(status.id()).toUri();
+        return ResponseEntity.accepted().location(location).body(status);
+    }
+
+    // Poll the progress of an import.
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/{id}")
+    public ImportJobStatus getImport(@PathVariable String id) {
+        return importService.status(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Import not found"));
+    }
+
+    private static ProductImportService.Format format(HttpServletRequest request) {
+        return request.getContentType().toLowerCase(Locale.ROOT).startsWith("text/csv")
+                ? ProductImportService.Format.CSV
+                : ProductImportService.Format.NDJSON;
+    }
+}
@@ -1,11 +1,13 @@
 package Shelfy.Shelfy_V1.entities;
 
+import Shelfy.Shelfy_V1.services.UserCacheInvalidator;
 import jakarta.persistence.*;
 
 
 // User entity representing a user in the system.
 @Entity
 @Table(name = "users")
+@EntityListeners(UserCacheInvalidator.class)
 public class User {
 
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -20,8 +22,17 @@ public class User {
     @Column(nullable = false)
     private boolean enabled = true;
 
+    // Username as read from the database, so a rename can evict the old cache entry
+    @Transient
+    private String loadedUsername;
+
     protected User() {} // JPA
 
+    @PostLoad
+    void rememberUsername() {
+        this.loadedUsername = username;
+    }
+
     public User(String username, String password, boolean enabled) {
         this.username = username;
         this.password = password;
@@ -36,4 +47,5 @@ public class User {
     public void setPassword(String password) { this.password = password; }
     public boolean isEnabled() { return enabled; }
     public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public String getLoadedUsername() { return loadedUsername; }
 }
@@ -0,0 +1,236 @@
+package Shelfy.Shelfy_V1.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Writes the product change feed to the product_audit table, off the request path.
+// Changes are queued as they are delivered and only the writer thread inserts them, in JDBC batches, so an
+// admin write normally returns as soon as its own row is committed. Delivery happens after commit, where
+// the finished transaction is still bound to the thread, so nothing is written from the callback. No change
+// is dropped:
+// - once more than shelfy.audit.queue-capacity changes are waiting, a committing thread waits up to
+//   shelfy.audit.backpressure-timeout for the writer to catch up (outside the change feed's delivery lock,
+//   so other listeners are not held up). If it does not, the change stays queued anyway and is counted in
+//   shelfy.audit.overflow;
+// - a batch that fails because the database is unavailable is retried with growing backoff until it is
+//   written, while new changes wait in the queue;
+// - a batch the database rejects is retried row by row, so one bad row cannot hold up the others. Rows
+//   that still fail are logged in full and counted in shelfy.audit.failed.
+// Queued changes are flushed on shutdown.
+@Component
+@Order(0)
+@ConditionalOnProperty(name = "shelfy.audit.enabled", havingValue = "true", matchIfMissing = true)
+public class ProductAuditWriter implements ProductChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductAuditWriter.class);
+
+    private static final String INSERT = "INSERT INTO product_audit"
+            + " (product_id, change_type, changed_at, changed_by, before_state, after_state)"
+            + " VALUES (?, ?, ?, ?, ?::jsonb, ?::jsonb)";
+    private static final long MAX_RETRY_BACKOFF_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<ProductChangeEvent> queue = new LinkedBlockingQueue<>();
+    // Notified whenever the writer takes changes off the queue
+    private final Object taken = new Object();
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long backpressureTimeoutNanos;
+    private final long retryBackoffNanos;
+    private final Counter written;
+    private final Counter overflow;
+    private final Counter retried;
+    private final Counter failed;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public ProductAuditWriter(JdbcTemplate jdbcTemplate,
+                              ObjectMapper objectMapper,
+                              MeterRegistry registry,
+                              @Value("${shelfy.audit.queue-capacity:10000}") int queueCapacity,
+                              @Value("${shelfy.audit.batch-size:200}") int batchSize,
+                              @Value("${shelfy.audit.flush-interval:1s}") Duration flushInterval,
+                              @Value("${shelfy.audit.backpressure-timeout:1s}") Duration backpressureTimeout,
+                              @Value("${shelfy.audit.retry-backoff:1s}") Duration retryBackoff) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.backpressureTimeoutNanos = backpressureTimeout.toNanos();
+        this.retryBackoffNanos = retryBackoff.toNanos();
+        this.written = Counter.builder("shelfy.audit.written").register(registry);
+        this.overflow = Counter.builder("shelfy.audit.overflow").register(registry);
+        this.retried = Counter.builder("shelfy.audit.retried").register(registry);
+        this.failed = Counter.builder("shelfy.audit.failed").register(registry);
+        registry.gauge("shelfy.audit.queued", queue, BlockingQueue::size);
+        this.writer = new Thread(this::run, "product-audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // Called under the delivery lock: never blocks.
+    @Override
+    public void onProductChange(ProductChangeEvent event) {
+        queue.add(event);
+    }
+
+    // Slow the committing thread down while the writer is behind.
+    @Override
+    public void afterProductChange(ProductChangeEvent event) {
+        if (queue.size() <= queueCapacity) return;
+        long deadline = System.nanoTime() + backpressureTimeoutNanos;
+        synchronized (taken) {
+            while (queue.size() > queueCapacity) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    overflow.increment();
+                    log.warn("Audit writer is behind ({} changes queued), continuing after change {}", queue.size(),
+                            event.sequence());
+                    return;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(taken, left);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Stop the writer and store whatever is still queued. Without a database, each remaining batch is
+    // tried once and then logged.
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        List<ProductChangeEvent> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (int from = 0; from < rest.size(); from += batchSize) {
+            store(rest.subList(from, Math.min(from + batchSize, rest.size())));
+        }
+    }
+
+    // Writer loop: wait for a first change, then give the batch up to the flush interval to fill up.
+    private void run() {
+        List<ProductChangeEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                ProductChangeEvent first = queue.take();
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long left = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || left <= 0) break;
+                    ProductChangeEvent next = queue.poll(left, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Shutting down; the changes taken so far are stored below, the rest by shutdown()
+            }
+            synchronized (taken) {
+                taken.notifyAll();
+            }
+            store(batch);
+            batch.clear();
+        }
+    }
+
+    // Insert one batch, retrying while the database is unavailable (only until shutdown begins).
+    // A batch the database rejects is stored row by row.
+    private void store(List<ProductChangeEvent> batch) {
+        if (batch.isEmpty()) return;
+        long backoff = retryBackoffNanos;
+        while (true) {
+            try {
+                insert(batch);
+                return;
+            } catch (TransientDataAccessException | RecoverableDataAccessException
+                     | DataAccessResourceFailureException e) {
+                if (!running) {
+                    batch.forEach(event -> lost(event, e));
+                    return;
+                }
+                retried.increment();
+                log.warn("Could not write {} product changes ({} to {}) to the audit table, retrying in {} ms: {}",
+                        batch.size(), batch.get(0).sequence(), batch.get(batch.size() - 1).sequence(),
+                        TimeUnit.NANOSECONDS.toMillis(backoff), e.getMessage());
+                try {
+                    TimeUnit.NANOSECONDS.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    // Shutting down: one last attempt
+                }
+                backoff = Math.min(backoff * 2, MAX_RETRY_BACKOFF_NANOS);
+            } catch (RuntimeException e) {
+                break;
+            }
+        }
+        storeRows(batch);
+    }
+
+    // Insert the changes one at a time, logging those that fail in full so they can be restored.
+    private void storeRows(List<ProductChangeEvent> events) {
+        for (ProductChangeEvent event : events) {
+            try {
+                insert(List.of(event));
+            } catch (RuntimeException e) {
+                lost(event, e);
+            }
+        }
+    }
+
+    private void lost(ProductChangeEvent event, RuntimeException e) {
+        failed.increment();
+        log.error("Could not write product change {} to the audit table: {} of product {} at {} by {}, before {}, after {}",
+                event.sequence(), event.type(), event.productId(), event.changedAt(), event.changedBy(),
+                event.before(), event.after(), e);
+    }
+
+    private void insert(List<ProductChangeEvent> batch) {
+        jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (statement, event) -> {
+            statement.setLong(1, event.productId());
+            statement.setString(2, event.type().name());
+            statement.setObject(3, event.changedAt().atOffset(ZoneOffset.UTC));
+            statement.setString(4, event.changedBy());
+            statement.setString(5, json(event.before()));
+            statement.setString(6, json(event.after()));
+        });
+        written.increment(batch.size());
+    }
+
+    private String json(Object value) {
+        if (value == null) return null;
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize product change", e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package Shelfy.Shelfy_V1.events;
+
+import Shelfy.Shelfy_V1.DTOs.ProductDto;
+
+import java.time.Instant;
+
+// A committed change to one product, as delivered by ProductChangeLog.
+// catalogVersion is the catalog version the write's transaction claimed, shared by every change of that
+// transaction, or 0 for a write made outside a transaction.
+// before is null for a creation and after is null for a deletion; both are immutable snapshots and
+// may be kept or handed to other threads.
+public record ProductChangeEvent(
+        long sequence,
+        long catalogVersion,
+        Type type,
+        Long productId,
+        ProductDto before,
+        ProductDto after,
+        Instant changedAt,
+        String changedBy) {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    // Whether a catalog snapshot taken at the given version already contains this change.
+    public boolean includedIn(long version) {
+        return catalogVersion != 0 && catalogVersion <= version;
+    }
+}
@@ -0,0 +1,26 @@
+package Shelfy.Shelfy_V1.events;
+
+// Subscriber to the product change feed. Every ProductChangeListener bean is called by ProductChangeLog
+// for each committed change, one event at a time and in sequence order, on the committing thread.
+// onProductChange runs under the delivery lock and must not block; a listener that needs to slow writers
+// down (see ProductAuditWriter) waits in afterProductChange, which runs once the lock is released.
+// Listeners that keep state derived from the catalog also rebuild it when CatalogVersion asks them to, at
+// startup and after writes that did not go through this feed.
+public interface ProductChangeListener {
+
+    void onProductChange(ProductChangeEvent event);
+
+    // Called on the committing thread after every listener has seen the change, outside the delivery lock.
+    default void afterProductChange(ProductChangeEvent event) {
+    }
+
+    // A reload is about to take its snapshot: from now on, keep the changes delivered until reload() so
+    // they can be applied on top of it.
+    default void reloading() {
+    }
+
+    // Rebuild from the catalog at the given version, reading it within the caller's transaction, then apply
+    // the kept changes that are not part of it (see ProductChangeEvent.includedIn).
+    default void reload(long catalogVersion) {
+    }
+}
@@ -0,0 +1,156 @@
+package Shelfy.Shelfy_V1.events;
+
+import Shelfy.Shelfy_V1.DTOs.ProductDto;
+import Shelfy.Shelfy_V1.cache.CatalogVersion;
+import Shelfy.Shelfy_V1.entities.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// In-process, append-only feed of product changes.
+// ProductService records every write here. A transaction's changes claim one catalog version (see
+// CatalogVersion) and are kept until it commits; then each change gets the next sequence number and is
+// delivered to all ProductChangeListener beans (search index, brand dictionary, suggester, product cache,
+// audit writer). Rolled-back writes are never delivered. Delivery is serialized, so every listener sees the
+// changes in the same order; only the afterProductChange hook, where listeners may push back on writers,
+// runs outside that lock.
+@Component
+public class ProductChangeLog {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeLog.class);
+
+    private final ObjectProvider<ProductChangeListener> listenerProvider;
+    private final CatalogVersion catalogVersion;
+    private volatile List<ProductChangeListener> listeners;
+    private long sequence;
+
+    public ProductChangeLog(ObjectProvider<ProductChangeListener> listeners, CatalogVersion catalogVersion) {
+        this.listenerProvider = listeners;
+        this.catalogVersion = catalogVersion;
+    }
+
+    public void created(Product product) {
+        record(ProductChangeEvent.Type.CREATED, null, product);
+    }
+
+    // before is the product as it was loaded, ahead of the modification.
+    public void updated(ProductDto before, Product product) {
+        record(ProductChangeEvent.Type.UPDATED, before, product);
+    }
+
+    public void deleted(Product product) {
+        record(ProductChangeEvent.Type.DELETED, ProductDto.from(product), product);
+    }
+
+    private record Change(ProductChangeEvent.Type type, ProductDto before, ProductDto after, Long productId,
+                          String changedBy) {
+    }
+
+    // Snapshot the change now, while the entity and the caller's identity are at hand, and deliver it
+    // after commit, or right away when there is no transaction.
+    private void record(ProductChangeEvent.Type type, ProductDto before, Product product) {
+        ProductDto after = type == ProductChangeEvent.Type.DELETED ? null : ProductDto.from(product);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String changedBy = authentication == null ? null : authentication.getName();
+        var change = new Change(type, before, after, product.getId(), changedBy);
+
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isSynchronizationActive()) {
+            var pending = (TransactionChanges) TransactionSynchronizationManager.getResource(this);
+            if (pending == null) {
+                pending = new TransactionChanges(catalogVersion.claim());
+                TransactionSynchronizationManager.bindResource(this, pending);
+                TransactionSynchronizationManager.registerSynchronization(pending);
+            }
+            pending.changes.add(change);
+        } else {
+            deliver(change, 0);
+        }
+    }
+
+    // Only the sequence and onProductChange are serialized; afterProductChange may block, so it runs
+    // outside the lock and holds up no other committing thread.
+    private void deliver(Change change, long version) {
+        ProductChangeEvent event = publish(change, version);
+        for (ProductChangeListener listener : listeners()) {
+            try {
+                listener.afterProductChange(event);
+            } catch (RuntimeException e) {
+                log.error("Product change listener {} failed after change {}", listener.getClass().getSimpleName(),
+                        event.sequence(), e);
+            }
+        }
+    }
+
+    private synchronized ProductChangeEvent publish(Change change, long version) {
+        var event = new ProductChangeEvent(++sequence, version, change.type(), change.productId(),
+                change.before(), change.after(), Instant.now(), change.changedBy());
+        for (ProductChangeListener listener : listeners()) {
+            try {
+                listener.onProductChange(event);
+            } catch (RuntimeException e) {
+                // The write is committed; one failing subscriber must not keep the others from seeing it
+                log.error("Product change listener {} failed on change {}", listener.getClass().getSimpleName(),
+                        event.sequence(), e);
+            }
+        }
+        return event;
+    }
+
+    // Resolved on first use, so listeners that need ProductService-dependent beans cause no cycle.
+    private List<ProductChangeListener> listeners() {
+        List<ProductChangeListener> resolved = listeners;
+        if (resolved == null) {
+            resolved = listenerProvider.orderedStream().toList();
+            listeners = resolved;
+        }
+        return resolved;
+    }
+
+    // The changes of one transaction, bound to it under this log, and the catalog version they claimed.
+    private final class TransactionChanges implements TransactionSynchronization {
+
+        final long version;
+        final List<Change> changes = new ArrayList<>();
+
+        TransactionChanges(long version) {
+            this.version = version;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(ProductChangeLog.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(ProductChangeLog.this, this);
+        }
+
+        @Override
+        public void afterCommit() {
+            try {
+                changes.forEach(change -> deliver(change, version));
+            } finally {
+                catalogVersion.committed(version);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ProductChangeLog.this);
+            if (status != STATUS_COMMITTED) {
+                catalogVersion.abandoned(version);
+            }
+        }
+    }
+}
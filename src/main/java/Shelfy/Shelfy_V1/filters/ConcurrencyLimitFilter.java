@@ -0,0 +1,67 @@
+package Shelfy.Shelfy_V1.filters;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Filter that caps the number of requests processed at the same time.
+// With virtual threads Tomcat no longer has a worker limit, so thousands of requests could pile up
+// waiting for a database connection. Requests beyond the limit wait briefly for a permit and are
+// then turned away with 503. A limit of 0 (the default) disables the filter.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long waitNanos;
+
+    public ConcurrencyLimitFilter(@Value("${shelfy.web.concurrency-limit.max-requests:0}") int maxRequests,
+                                  @Value("${shelfy.web.concurrency-limit.wait:1s}") Duration wait) {
+        this.permits = maxRequests > 0 ? new Semaphore(maxRequests) : null;
+        this.waitNanos = wait.toNanos();
+    }
+
+    // Health probes must keep answering while the application is saturated.
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return permits == null || request.getRequestURI().contains("/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(waitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+        // Streamed responses continue after this returns, so they only hold the permit while the
+        // request thread does
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
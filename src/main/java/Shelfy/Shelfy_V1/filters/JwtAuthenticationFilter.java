@@ -1,11 +1,16 @@
 package Shelfy.Shelfy_V1.filters;
 
 import Shelfy.Shelfy_V1.services.JwtService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -13,6 +18,11 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -25,11 +35,37 @@ import org.springframework.http.HttpHeaders;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
+    // Tokens that already passed verification, keyed by SHA-256 digest so raw tokens are never retained.
+    // Each entry expires together with its token.
+    private final Cache<String, VerifiedToken> verified;
 
-    public JwtAuthenticationFilter(JwtService jwtService) {
+    public JwtAuthenticationFilter(JwtService jwtService,
+                                   @Value("${security.jwt.cache.maximum-size:10000}") long cacheSize) {
         this.jwtService = jwtService;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        long millis = value.expiresAt().toEpochMilli() - System.currentTimeMillis();
+                        return Math.max(0, millis) * 1_000_000L;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
+    private record VerifiedToken(Authentication authentication, Instant expiresAt) {}
+
     // Extracts and validates the JWT token from the request,
     // setting the authentication in the security context if valid.
     @Override
@@ -55,26 +91,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // If a token is found, validate and parse it
         if (token != null) {
             try {
-                var jws = jwtService.parse(token);
-                var body = jws.getPayload();
-                String username = body.getSubject();
-                // Extract roles from the token claims
-                @SuppressWarnings("unchecked")
-                List<String> roles = body.get("roles", List.class);
-                // Map roles to Spring Security authorities
-                List<SimpleGrantedAuthority> authorities =
-                        // Handle case where roles might be null
-                        (roles == null)
-                                // No roles, assign empty list of authorities
-                                ? Collections.<SimpleGrantedAuthority>emptyList()
-                                // Map each role to a SimpleGrantedAuthority
-                                : roles.stream()
-                                .map(SimpleGrantedAuthority::new)
-                                .collect(Collectors.toList());
-                // Create an authentication token and set it in the security context
-                var auth = new UsernamePasswordAuthenticationToken(username, null, authorities);
                 // Set the authentication in the security context
-                SecurityContextHolder.getContext().setAuthentication(auth);
+                SecurityContextHolder.getContext().setAuthentication(authenticate(token));
             } catch (JwtException ex) {
                 // Do nothing if token is invalid
             }
@@ -83,6 +101,47 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // Return the authentication for a token, verifying it only when it is not in the cache yet.
+    private Authentication authenticate(String token) {
+        String key = digest(token);
+        VerifiedToken cached = verified.getIfPresent(key);
+        if (cached != null) {
+            return cached.authentication();
+        }
+
+        var jws = jwtService.parse(token);
+        var body = jws.getPayload();
+        String username = body.getSubject();
+        // Extract roles from the token claims
+        @SuppressWarnings("unchecked")
+        List<String> roles = body.get("roles", List.class);
+        // Map roles to Spring Security authorities
+        List<SimpleGrantedAuthority> authorities =
+                // Handle case where roles might be null
+                (roles == null)
+                        // No roles, assign empty list of authorities
+                        ? Collections.<SimpleGrantedAuthority>emptyList()
+                        // Map each role to a SimpleGrantedAuthority
+                        : roles.stream()
+                        .map(SimpleGrantedAuthority::new)
+                        .collect(Collectors.toList());
+        // Create an authentication token; it carries no credentials, so it can be shared between requests
+        var auth = new UsernamePasswordAuthenticationToken(username, null, authorities);
+        if (body.getExpiration() != null) {
+            verified.put(key, new VerifiedToken(auth, body.getExpiration().toInstant()));
+        }
+        return auth;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     // Skip filtering for login endpoint
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
@@ -0,0 +1,64 @@
+package Shelfy.Shelfy_V1.filters;
+
+import Shelfy.Shelfy_V1.sql.RequestStatements;
+import Shelfy.Shelfy_V1.sql.StatementRecorder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+// Filter that counts the SQL statements and database time of each request and logs the requests that
+// exceed shelfy.sql.request.max-statements (usually an N+1 query) or shelfy.sql.request.max-time,
+// listing their statements and bind shapes. Statements run on other threads (streamed responses,
+// import writers) are not attributed to the request.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class StatementStatsFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementStatsFilter.class);
+
+    private final StatementRecorder recorder;
+    private final int maxStatements;
+    private final long maxNanos;
+
+    public StatementStatsFilter(StatementRecorder recorder,
+                                @Value("${shelfy.sql.request.max-statements:20}") int maxStatements,
+                                @Value("${shelfy.sql.request.max-time:500ms}") Duration maxTime) {
+        this.recorder = recorder;
+        this.maxStatements = maxStatements;
+        this.maxNanos = maxTime.toNanos();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().contains("/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestStatements statements = recorder.beginRequest();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            recorder.endRequest();
+            if ((statements.count() > maxStatements || statements.nanos() > maxNanos) && log.isWarnEnabled()) {
+                log.warn("{} {} ran {} SQL statements taking {} ms:\n{}",
+                        request.getMethod(), request.getRequestURI(), statements.count(),
+                        String.format("%.1f", statements.nanos() / 1e6), statements.describe());
+            }
+        }
+    }
+}
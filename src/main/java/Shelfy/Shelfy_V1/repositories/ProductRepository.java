@@ -1,60 +1,68 @@
 package Shelfy.Shelfy_V1.repositories;
 
 
+import Shelfy.Shelfy_V1.DTOs.BrandFacet;
+import Shelfy.Shelfy_V1.DTOs.NameCount;
+import Shelfy.Shelfy_V1.DTOs.ProductDto;
 import Shelfy.Shelfy_V1.entities.Product;
 
 import org.springframework.data.domain.Example;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 
 // Repository interface for managing Product entities.
-public interface ProductRepository extends JpaRepository<Product, Long> {
+// Searches with optional filters are built dynamically, either from ProductSpecifications (cursor
+// pagination, paged filtering) or by ProductSearchRepository (DTO search and streaming).
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductSearchRepository {
 
-    // Find products by name containing a specified string (case-insensitive) with
-    // optional filters for brand, price range, and recommendation status.
+    // Find a single product by id as a ProductDto.
+    @Transactional(readOnly = true)
     @Query("""
-  SELECT p FROM Product p
-  WHERE (COALESCE(:name, '') = '' OR LOWER(p.name) LIKE CONCAT('%', LOWER(CAST(:name AS string)), '%'))
-    AND (:recommended IS NULL OR p.recommended = :recommended)
-    AND (:brands IS NULL OR p.brand IN :brands)
-    AND (:priceMin IS NULL OR p.defaultPrice >= :priceMin)
-    AND (:priceMax IS NULL OR p.defaultPrice <= :priceMax)
+  SELECT new Shelfy.Shelfy_V1.DTOs.ProductDto(p.id, p.name, p.brand, p.unit, p.defaultPrice, p.imageUrl, p.recommended, p.active)
+  FROM Product p
+  WHERE p.id = :id
 """)
-    List<Product> findByNameContainingIgnoreCase(@Param("name") String name,
-                                                 @Param("brands") List<String> brands,
-                                                 @Param("priceMin") BigDecimal priceMin,
-                                                 @Param("priceMax") BigDecimal priceMax,
-                                                 @Param("recommended") Boolean recommended,
-                                                 org.springframework.data.domain.Sort sort);
+    Optional<ProductDto> findDtoById(@Param("id") Long id);
 
     // Find all products that are marked as recommended.
     List<Product> findByRecommendedTrue();
 
-    // Find products with multiple optional filters and pagination support.
-    @Query("""
-  SELECT p FROM Product p
-  WHERE (:name IS NULL OR LOWER(p.name) LIKE CONCAT('%', :name, '%'))
-    AND (:recommended IS NULL OR p.recommended = :recommended)
-    AND (:brand IS NULL OR p.brand = :brand)
-    AND (:priceMin IS NULL OR p.defaultPrice >= :priceMin)
-    AND (:priceMax IS NULL OR p.defaultPrice <= :priceMax)
-""")
-    Page<Product> findFiltered(
-            @Param("name") String name,
-            @Param("brand") String brand,
-            @Param("priceMin") BigDecimal priceMin,
-            @Param("priceMax") BigDecimal priceMax,
-            @Param("recommended") boolean recommended,
-            Pageable pageable);
-
     // Retrieve a list of all unique product brands.
+    @Transactional(readOnly = true)
     @Query("SELECT DISTINCT p.brand FROM Product p")
     List<String> findAllUniqueBrands();
+
+    // Count the products of every brand.
+    @Transactional(readOnly = true)
+    @Query("SELECT new Shelfy.Shelfy_V1.DTOs.BrandFacet(p.brand, COUNT(p)) FROM Product p GROUP BY p.brand")
+    List<BrandFacet> countProductsByBrand();
+
+    // Count the products of every name.
+    @Transactional(readOnly = true)
+    @Query("SELECT new Shelfy.Shelfy_V1.DTOs.NameCount(p.name, COUNT(p)) FROM Product p GROUP BY p.name")
+    List<NameCount> countProductsByName();
+
+    // Most common names with a word starting with a prefix, for lookups without the in-memory suggester.
+    // Both are LIKE patterns escaped with a backslash: one for the first word ("mil%"), one for any later
+    // word ("% mil%"). The second one can use the trigram index on LOWER(name).
+    @Transactional(readOnly = true)
+    @Query("""
+  SELECT new Shelfy.Shelfy_V1.DTOs.NameCount(p.name, COUNT(p))
+  FROM Product p
+  WHERE LOWER(p.name) LIKE :firstWord ESCAPE '\\' OR LOWER(p.name) LIKE :laterWord ESCAPE '\\'
+  GROUP BY p.name
+  ORDER BY COUNT(p) DESC, p.name
+""")
+    List<NameCount> countProductsByNameWordPrefix(@Param("firstWord") String firstWord,
+                                                  @Param("laterWord") String laterWord,
+                                                  Pageable pageable);
 }
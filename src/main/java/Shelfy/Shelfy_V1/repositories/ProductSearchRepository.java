@@ -0,0 +1,26 @@
+package Shelfy.Shelfy_V1.repositories;
+
+import Shelfy.Shelfy_V1.DTOs.ProductDto;
+import Shelfy.Shelfy_V1.search.ProductFilter;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+// Repository fragment for product searches built from the filters that are actually set.
+// Every combination of filters becomes its own SQL statement without "(:x IS NULL OR ...)" branches,
+// so each gets its own cached plan that can use the matching index.
+public interface ProductSearchRepository {
+
+    // Products matching the filter, projected straight into ProductDto.
+    List<ProductDto> searchDtos(ProductFilter filter, Sort sort);
+
+    // Same as searchDtos, but read through a forward-only cursor in chunks of fetch-size rows.
+    // Must be consumed inside a transaction and closed afterwards.
+    Stream<ProductDto> streamDtos(ProductFilter filter, Sort sort);
+
+    // Full-text search: products whose name or brand match the tsquery (see FullTextQuery), narrowed by
+    // the other filters of the filter (its name is ignored). Ordered by the sort, if any, then by ts_rank.
+    // Rejects sort properties that are not product columns.
+    List<ProductDto> fullTextSearchDtos(String tsQuery, ProductFilter filter, Sort sort);
+}
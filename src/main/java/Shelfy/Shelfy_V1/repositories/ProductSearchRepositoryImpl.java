@@ -0,0 +1,130 @@
+package Shelfy.Shelfy_V1.repositories;
+
+import Shelfy.Shelfy_V1.DTOs.ProductDto;
+import Shelfy.Shelfy_V1.entities.Product;
+import Shelfy.Shelfy_V1.search.ProductFilter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Criteria API implementation of ProductSearchRepository.
+// Predicates come from ProductSpecifications, so this and the cursor-paginated search filter alike.
+class ProductSearchRepositoryImpl implements ProductSearchRepository {
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    // Sortable properties and their columns, for the native full-text query
+    private static final Map<String, String> COLUMNS = Map.of(
+            "id", "p.id",
+            "name", "p.name",
+            "brand", "p.brand",
+            "unit", "p.unit",
+            "defaultPrice", "p.default_price",
+            "imageUrl", "p.image_url",
+            "active", "p.is_active",
+            "recommended", "p.is_recommended",
+            "createdAt", "p.created_at",
+            "lastUpdate", "p.last_update");
+
+    private final EntityManager entityManager;
+
+    ProductSearchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductDto> searchDtos(ProductFilter filter, Sort sort) {
+        return query(filter, sort).getResultList();
+    }
+
+    @Override
+    public Stream<ProductDto> streamDtos(ProductFilter filter, Sort sort) {
+        return query(filter, sort)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_CACHEABLE, false)
+                .getResultStream();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductDto> fullTextSearchDtos(String tsQuery, ProductFilter filter, Sort sort) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT p.id, p.name, p.brand, p.unit, p.default_price, p.image_url, p.is_recommended, p.is_active
+                FROM products p, to_tsquery('simple', :query) q
+                WHERE p.search_vector @@ q""");
+        Map<String, Object> params = new HashMap<>();
+        params.put("query", tsQuery);
+        if (filter.recommended() != null) {
+            sql.append(" AND p.is_recommended = :recommended");
+            params.put("recommended", filter.recommended());
+        }
+        if (filter.brands() != null) {
+            sql.append(" AND p.brand IN (:brands)");
+            params.put("brands", filter.brands());
+        }
+        if (filter.priceMin() != null) {
+            sql.append(" AND p.default_price >= :priceMin");
+            params.put("priceMin", filter.priceMin());
+        }
+        if (filter.priceMax() != null) {
+            sql.append(" AND p.default_price <= :priceMax");
+            params.put("priceMax", filter.priceMax());
+        }
+
+        // An explicit sort wins; relevance orders whatever the sort leaves tied
+        List<String> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String column = COLUMNS.get(order.getProperty());
+            if (column == null) throw new IllegalArgumentException("Cannot sort by " + order.getProperty());
+            String expression = order.isIgnoreCase() ? "lower(" + column + ")" : column;
+            String nulls = switch (order.getNullHandling()) {
+                case NULLS_FIRST -> " NULLS FIRST";
+                case NULLS_LAST -> " NULLS LAST";
+                case NATIVE -> "";
+            };
+            orders.add(expression + (order.isAscending() ? " ASC" : " DESC") + nulls);
+        }
+        orders.add("ts_rank(p.search_vector, q) DESC");
+        orders.add("p.id");
+        sql.append(" ORDER BY ").append(String.join(", ", orders));
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        params.forEach(query::setParameter);
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        return rows.stream()
+                .map(r -> new ProductDto((Long) r[0], (String) r[1], (String) r[2], (String) r[3],
+                        (BigDecimal) r[4], (String) r[5], (Boolean) r[6], (Boolean) r[7]))
+                .toList();
+    }
+
+    // SELECT new ProductDto(...) FROM Product WHERE <only the filters that are set> ORDER BY <sort>
+    private TypedQuery<ProductDto> query(ProductFilter filter, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductDto> query = cb.createQuery(ProductDto.class);
+        Root<Product> p = query.from(Product.class);
+        query.select(cb.construct(ProductDto.class,
+                p.get("id"), p.get("name"), p.get("brand"), p.get("unit"),
+                p.get("defaultPrice"), p.get("imageUrl"), p.get("recommended"), p.get("active")));
+        query.where(ProductSpecifications.matching(filter).toPredicate(p, query, cb));
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, p, cb));
+        }
+        return entityManager.createQuery(query);
+    }
+}
@@ -0,0 +1,54 @@
+package Shelfy.Shelfy_V1.repositories;
+
+import Shelfy.Shelfy_V1.entities.Product;
+import Shelfy.Shelfy_V1.search.ProductFilter;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// JPA Specifications for product queries. Only the filters that are actually set become predicates.
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    // Specification matching every product that passes the given filter.
+    public static Specification<Product> matching(ProductFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.name() != null) {
+                predicates.add(cb.like(cb.lower(root.get("name")), containsPattern(filter.name()), '\\'));
+            }
+            if (filter.recommended() != null) {
+                predicates.add(cb.equal(root.get("recommended"), filter.recommended()));
+            }
+            if (filter.brands() != null) {
+                predicates.add(root.get("brand").in(filter.brands()));
+            }
+            if (filter.priceMin() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.<BigDecimal>get("defaultPrice"), filter.priceMin()));
+            }
+            if (filter.priceMax() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.<BigDecimal>get("defaultPrice"), filter.priceMax()));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    // Lower-cased LIKE pattern for a substring match, with LIKE wildcards in the input escaped.
+    public static String containsPattern(String name) {
+        return "%" + escapeLike(name) + "%";
+    }
+
+    // Lower-cased text with the LIKE wildcards and the backslash escape character escaped.
+    public static String escapeLike(String text) {
+        return text.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -0,0 +1,120 @@
+package Shelfy.Shelfy_V1.search;
+
+import Shelfy.Shelfy_V1.DTOs.BrandFacet;
+import Shelfy.Shelfy_V1.events.ProductChangeEvent;
+import Shelfy.Shelfy_V1.events.ProductChangeListener;
+import Shelfy.Shelfy_V1.repositories.ProductRepository;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+
+// In-memory dictionary of product brands with per-brand product counts.
+// Loaded by CatalogVersion and then maintained incrementally from the product change feed, so brand listings
+// never touch the database. Readers get an immutable snapshot; responses built from it are validated by the
+// catalog version like every other catalog response.
+@Component
+@Order(0)
+public class BrandDictionary implements ProductChangeListener {
+
+    // Immutable view of the dictionary.
+    public record Snapshot(List<String> brands, List<BrandFacet> facets) {
+    }
+
+    private final ProductRepository productRepository;
+    private final TreeMap<String, Long> counts = new TreeMap<>();
+    // Catalog version of the last reload; changes it already contains are not applied again
+    private long loadedVersion;
+    // Changes delivered while a reload reads the counts, or null when none is running
+    private List<ProductChangeEvent> pending;
+    private volatile Snapshot snapshot;
+
+    public BrandDictionary(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @Override
+    public synchronized void reloading() {
+        pending = new ArrayList<>();
+    }
+
+    // Load the brand counts. Changes delivered while they are read are applied on top, unless the counts
+    // already contain them.
+    @Override
+    public void reload(long catalogVersion) {
+        List<BrandFacet> facets = productRepository.countProductsByBrand();
+        synchronized (this) {
+            counts.clear();
+            for (BrandFacet facet : facets) {
+                if (facet.brand() != null) counts.put(facet.brand(), facet.count());
+            }
+            loadedVersion = catalogVersion;
+            publish();
+            if (pending != null) {
+                pending.forEach(this::apply);
+                pending = null;
+            }
+        }
+    }
+
+    // Current snapshot, or empty while the dictionary has not been loaded yet.
+    public Optional<Snapshot> snapshot() {
+        return Optional.ofNullable(snapshot);
+    }
+
+    // Record a product with the given brand being added.
+    public synchronized void added(String brand) {
+        if (snapshot == null || brand == null) return;
+        counts.merge(brand, 1L, Long::sum);
+        publish();
+    }
+
+    // Record a product with the given brand being removed.
+    public synchronized void removed(String brand) {
+        if (snapshot == null || brand == null) return;
+        decrement(brand);
+        publish();
+    }
+
+    // Record a product moving from one brand to another.
+    public synchronized void changed(String oldBrand, String newBrand) {
+        if (snapshot == null || Objects.equals(oldBrand, newBrand)) return;
+        if (oldBrand != null) decrement(oldBrand);
+        if (newBrand != null) counts.merge(newBrand, 1L, Long::sum);
+        publish();
+    }
+
+    // Follow the product change feed.
+    @Override
+    public synchronized void onProductChange(ProductChangeEvent event) {
+        if (pending != null) pending.add(event);
+        apply(event);
+    }
+
+    // Caller holds the monitor.
+    private void apply(ProductChangeEvent event) {
+        if (event.includedIn(loadedVersion)) return;
+        switch (event.type()) {
+            case CREATED -> added(event.after().brand());
+            case UPDATED -> changed(event.before().brand(), event.after().brand());
+            case DELETED -> removed(event.before().brand());
+        }
+    }
+
+    private void decrement(String brand) {
+        counts.computeIfPresent(brand, (k, n) -> n > 1 ? n - 1 : null);
+    }
+
+    // Freeze the current counts into a new snapshot. Caller holds the monitor.
+    private void publish() {
+        List<BrandFacet> facets = counts.entrySet().stream()
+                .map(e -> new BrandFacet(e.getKey(), e.getValue()))
+                .toList();
+        List<String> brands = List.copyOf(counts.keySet());
+        snapshot = new Snapshot(brands, facets);
+    }
+}
@@ -0,0 +1,35 @@
+package Shelfy.Shelfy_V1.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Turns free text typed into the search box into a PostgreSQL tsquery.
+// Every word must match (AND) and every word matches as a prefix, so "organic mil 1l" becomes
+// "organic:* & mil:* & 1l:*". Only letters and digits are kept, so user input can never inject
+// tsquery operators.
+public final class FullTextQuery {
+
+    private FullTextQuery() {
+    }
+
+    // The tsquery for the text, or null when it contains no searchable word.
+    public static String prefixQuery(String text) {
+        if (text == null) return null;
+        List<String> terms = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); ) {
+            int c = lower.codePointAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                word.appendCodePoint(c);
+            } else if (!word.isEmpty()) {
+                terms.add(word + ":*");
+                word.setLength(0);
+            }
+            i += Character.charCount(c);
+        }
+        if (!word.isEmpty()) terms.add(word + ":*");
+        return terms.isEmpty() ? null : String.join(" & ", terms);
+    }
+}
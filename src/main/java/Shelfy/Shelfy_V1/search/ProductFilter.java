@@ -0,0 +1,35 @@
+package Shelfy.Shelfy_V1.search;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.StringJoiner;
+
+// Normalized set of optional filters accepted by the product search endpoints.
+// A null component means "not filtered on".
+public record ProductFilter(
+        String name,
+        List<String> brands,
+        BigDecimal priceMin,
+        BigDecimal priceMax,
+        Boolean recommended) {
+
+    // Build a filter from raw request parameters, turning blank names and empty brand lists into null.
+    public static ProductFilter of(String name, List<String> brands,
+                                   BigDecimal priceMin, BigDecimal priceMax,
+                                   Boolean recommended) {
+        String normName = (name == null || name.isBlank()) ? null : name.trim();
+        List<String> normBrands = (brands == null || brands.isEmpty()) ? null : List.copyOf(brands);
+        return new ProductFilter(normName, normBrands, priceMin, priceMax, recommended);
+    }
+
+    // Which filters are set, e.g. "name+brand" or "none". Low-cardinality label for metrics:
+    // it says how the search was shaped without exposing what was searched for.
+    public String shape() {
+        StringJoiner shape = new StringJoiner("+");
+        if (name != null) shape.add("name");
+        if (brands != null) shape.add("brand");
+        if (priceMin != null || priceMax != null) shape.add("price");
+        if (recommended != null) shape.add("recommended");
+        return shape.length() == 0 ? "none" : shape.toString();
+    }
+}
@@ -0,0 +1,380 @@
+package Shelfy.Shelfy_V1.search;
+
+import Shelfy.Shelfy_V1.DTOs.ProductDto;
+import Shelfy.Shelfy_V1.events.ProductChangeEvent;
+import Shelfy.Shelfy_V1.events.ProductChangeListener;
+import Shelfy.Shelfy_V1.repositories.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+// In-memory search index over the product catalog.
+// Products live in numbered slots as ProductDto snapshots, never as entities, so nothing here is tied to
+// a persistence context or can be changed by one; every filter is answered by a bitmap over those slots:
+// a trigram inverted index over the lower-cased name, one bitmap per brand, a recommended bitmap
+// and a price column sorted once per write burst for range lookups.
+// Loaded by CatalogVersion and then kept current from the product change feed.
+// When disabled (or still loading) search() returns empty and callers fall back to the database.
+@Component
+@Order(0)
+public class ProductSearchIndex implements ProductChangeListener {
+
+    private static final int GRAM = 3;
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+    // Catalog version of the last reload; changes it already contains are not applied again
+    private long loadedVersion;
+    // Changes delivered while a reload reads the catalog, or null when none is running
+    private List<ProductChangeEvent> pending;
+
+    // Slot storage
+    private final List<ProductDto> products = new ArrayList<>();
+    private final List<String> lowerNames = new ArrayList<>();
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+
+    // Filter bitmaps
+    private final Map<String, BitSet> trigrams = new HashMap<>();
+    private final Map<String, BitSet> brands = new HashMap<>();
+    private final BitSet recommended = new BitSet();
+
+    // Price column: slots ordered by price, rebuilt lazily after writes
+    private int[] priceSlots = new int[0];
+    private BigDecimal[] priceValues = new BigDecimal[0];
+    private boolean priceColumnDirty;
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              @Value("${shelfy.search.index.enabled:false}") boolean enabled) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    @Override
+    public void reloading() {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Load the whole catalog. Searches keep using the current content until it is replaced.
+    @Override
+    public void reload(long catalogVersion) {
+        if (!enabled) return;
+        List<ProductDto> catalog = productRepository.searchDtos(ProductFilter.of(null, null, null, null, null),
+                Sort.unsorted());
+        lock.writeLock().lock();
+        try {
+            rebuild(catalog);
+            loadedVersion = catalogVersion;
+            if (pending != null) {
+                pending.forEach(this::apply);
+                pending = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Replace the index content with the given products.
+    public void rebuild(Collection<ProductDto> catalog) {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            products.clear();
+            lowerNames.clear();
+            slotById.clear();
+            freeSlots.clear();
+            live.clear();
+            trigrams.clear();
+            brands.clear();
+            recommended.clear();
+            for (ProductDto product : catalog) {
+                insert(product);
+            }
+            priceColumnDirty = true;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Add or replace a product in the index.
+    public void upsert(ProductDto product) {
+        if (!enabled || product.id() == null) return;
+        lock.writeLock().lock();
+        try {
+            delete(product.id());
+            insert(product);
+            priceColumnDirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Drop a product from the index.
+    public void remove(Long id) {
+        if (!enabled || id == null) return;
+        lock.writeLock().lock();
+        try {
+            delete(id);
+            priceColumnDirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Follow the product change feed.
+    @Override
+    public void onProductChange(ProductChangeEvent event) {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            if (pending != null) pending.add(event);
+            apply(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock.
+    private void apply(ProductChangeEvent event) {
+        if (!ready || event.includedIn(loadedVersion)) return;
+        if (event.type() == ProductChangeEvent.Type.DELETED) remove(event.productId());
+        else upsert(event.after());
+    }
+
+    // Answer a search from memory. Empty when the index cannot serve it (disabled, loading, or an
+    // unsupported sort property), in which case the caller should query the database instead.
+    public Optional<List<ProductDto>> search(ProductFilter filter, Sort sort) {
+        if (!isReady()) return Optional.empty();
+        Comparator<ProductDto> order = comparator(sort);
+        if (order == null) return Optional.empty();
+
+        boolean byPrice = filter.priceMin() != null || filter.priceMax() != null;
+
+        List<ProductDto> result = new ArrayList<>();
+        lock.readLock().lock();
+        if (byPrice && priceColumnDirty) {
+            // Re-sort under the write lock, then downgrade so no write can land before we read
+            lock.readLock().unlock();
+            lock.writeLock().lock();
+            try {
+                if (priceColumnDirty) sortPriceColumn();
+                lock.readLock().lock();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        try {
+            BitSet candidates = (BitSet) live.clone();
+            String needle = filter.name() == null ? null : filter.name().toLowerCase(Locale.ROOT);
+
+            // Every trigram of the needle must occur in the name; shorter needles are checked by scan only
+            if (needle != null && needle.length() >= GRAM) {
+                for (int i = 0; i + GRAM <= needle.length(); i++) {
+                    BitSet posting = trigrams.get(needle.substring(i, i + GRAM));
+                    if (posting == null) return Optional.of(List.of());
+                    candidates.and(posting);
+                }
+            }
+            if (filter.brands() != null) {
+                BitSet anyBrand = new BitSet();
+                for (String brand : filter.brands()) {
+                    BitSet posting = brands.get(brand);
+                    if (posting != null) anyBrand.or(posting);
+                }
+                candidates.and(anyBrand);
+            }
+            if (filter.recommended() != null) {
+                if (filter.recommended()) candidates.and(recommended);
+                else candidates.andNot(recommended);
+            }
+            if (byPrice) {
+                candidates.and(priceRange(filter.priceMin(), filter.priceMax()));
+            }
+
+            for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+                // Trigrams are necessary but not sufficient, so confirm the substring match
+                if (needle == null || lowerNames.get(slot).contains(needle)) {
+                    result.add(products.get(slot));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        result.sort(order);
+        return Optional.of(result);
+    }
+
+    // Place a product into a free slot and register it in every bitmap. Caller holds the write lock.
+    private void insert(ProductDto product) {
+        int slot;
+        if (freeSlots.isEmpty()) {
+            slot = products.size();
+            products.add(product);
+            lowerNames.add(null);
+        } else {
+            slot = freeSlots.pop();
+            products.set(slot, product);
+        }
+        String lowerName = product.name() == null ? "" : product.name().toLowerCase(Locale.ROOT);
+        lowerNames.set(slot, lowerName);
+        slotById.put(product.id(), slot);
+        live.set(slot);
+
+        for (int i = 0; i + GRAM <= lowerName.length(); i++) {
+            trigrams.computeIfAbsent(lowerName.substring(i, i + GRAM), k -> new BitSet()).set(slot);
+        }
+        if (product.brand() != null) {
+            brands.computeIfAbsent(product.brand(), k -> new BitSet()).set(slot);
+        }
+        if (product.recommended()) {
+            recommended.set(slot);
+        }
+    }
+
+    // Unregister a product from every bitmap and free its slot. Caller holds the write lock.
+    private void delete(Long id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) return;
+        ProductDto old = products.get(slot);
+        String lowerName = lowerNames.get(slot);
+
+        for (int i = 0; i + GRAM <= lowerName.length(); i++) {
+            String gram = lowerName.substring(i, i + GRAM);
+            BitSet posting = trigrams.get(gram);
+            if (posting != null) {
+                posting.clear(slot);
+                if (posting.isEmpty()) trigrams.remove(gram);
+            }
+        }
+        if (old.brand() != null) {
+            BitSet posting = brands.get(old.brand());
+            if (posting != null) {
+                posting.clear(slot);
+                if (posting.isEmpty()) brands.remove(old.brand());
+            }
+        }
+        recommended.clear(slot);
+        live.clear(slot);
+        products.set(slot, null);
+        lowerNames.set(slot, null);
+        freeSlots.push(slot);
+    }
+
+    // Re-sort the price column. Done lazily so a burst of writes pays for a single sort.
+    // Caller holds the write lock.
+    private void sortPriceColumn() {
+        Integer[] order = live.stream()
+                .filter(slot -> products.get(slot).defaultPrice() != null)
+                .boxed()
+                .toArray(Integer[]::new);
+        Arrays.sort(order, Comparator.comparing(slot -> products.get(slot).defaultPrice()));
+        priceSlots = new int[order.length];
+        priceValues = new BigDecimal[order.length];
+        for (int i = 0; i < order.length; i++) {
+            priceSlots[i] = order[i];
+            priceValues[i] = products.get(order[i]).defaultPrice();
+        }
+        priceColumnDirty = false;
+    }
+
+    // Slots whose price lies in [min, max]; either bound may be null. Caller holds the read lock.
+    private BitSet priceRange(BigDecimal min, BigDecimal max) {
+        int from = min == null ? 0 : firstIndexAtLeast(min, false);
+        int to = max == null ? priceValues.length : firstIndexAtLeast(max, true);
+        BitSet range = new BitSet();
+        for (int i = from; i < to; i++) {
+            range.set(priceSlots[i]);
+        }
+        return range;
+    }
+
+    // Binary search for the first price >= bound (or > bound when exclusive is set).
+    private int firstIndexAtLeast(BigDecimal bound, boolean exclusive) {
+        int lo = 0, hi = priceValues.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = priceValues[mid].compareTo(bound);
+            if (cmp < 0 || (exclusive && cmp == 0)) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Translate a Spring Data Sort into a comparator, or null if a property is not known to the index
+    // (createdAt and lastUpdate are not part of ProductDto, so those sorts go to the database).
+    // Nulls follow the PostgreSQL default (last when ascending, first when descending) unless the
+    // order asks otherwise. Strings compare by code point, which may differ from the database collation.
+    static Comparator<ProductDto> comparator(Sort sort) {
+        Comparator<ProductDto> result = null;
+        for (Sort.Order order : sort) {
+            Function<ProductDto, Comparable<?>> key = sortKey(order.getProperty(), order.isIgnoreCase());
+            if (key == null) return null;
+
+            boolean nullsFirst = switch (order.getNullHandling()) {
+                case NULLS_FIRST -> true;
+                case NULLS_LAST -> false;
+                case NATIVE -> order.isDescending();
+            };
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            Comparator<Comparable> natural = order.isAscending()
+                    ? Comparator.<Comparable>naturalOrder()
+                    : Comparator.<Comparable>reverseOrder();
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            Comparator<ProductDto> next = Comparator.comparing(
+                    p -> (Comparable) key.apply(p),
+                    nullsFirst ? Comparator.nullsFirst(natural) : Comparator.nullsLast(natural));
+            result = (result == null) ? next : result.thenComparing(next);
+        }
+        // The database gives no order for ties; the index uses the id so results are stable
+        Comparator<ProductDto> byId = Comparator.comparing(ProductDto::id);
+        return (result == null) ? byId : result.thenComparing(byId);
+    }
+
+    private static Function<ProductDto, Comparable<?>> sortKey(String property, boolean ignoreCase) {
+        return switch (property) {
+            case "id" -> ProductDto::id;
+            case "name" -> p -> text(p.name(), ignoreCase);
+            case "brand" -> p -> text(p.brand(), ignoreCase);
+            case "unit" -> p -> text(p.unit(), ignoreCase);
+            case "imageUrl" -> p -> text(p.imageUrl(), ignoreCase);
+            case "defaultPrice" -> ProductDto::defaultPrice;
+            case "active" -> ProductDto::active;
+            case "recommended" -> ProductDto::recommended;
+            default -> null;
+        };
+    }
+
+    private static String text(String value, boolean ignoreCase) {
+        return (value != null && ignoreCase) ? value.toLowerCase(Locale.ROOT) : value;
+    }
+}
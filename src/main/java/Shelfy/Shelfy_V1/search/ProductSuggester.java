@@ -0,0 +1,271 @@
+package Shelfy.Shelfy_V1.search;
+
+import Shelfy.Shelfy_V1.DTOs.BrandFacet;
+import Shelfy.Shelfy_V1.DTOs.NameCount;
+import Shelfy.Shelfy_V1.DTOs.ProductDto;
+import Shelfy.Shelfy_V1.DTOs.Suggestion;
+import Shelfy.Shelfy_V1.events.ProductChangeEvent;
+import Shelfy.Shelfy_V1.events.ProductChangeListener;
+import Shelfy.Shelfy_V1.repositories.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory typeahead over product names and brands.
+// Completions live in a character trie keyed by their lower-cased text starting at every word, so
+// "mil" completes "Organic Milk 1L" as well as "Milk Chocolate". A completion's weight is the number of
+// products carrying it; every node remembers the heaviest completion below it, which lets suggest()
+// walk the subtree best-first and stop after the top N without visiting the rest.
+// Loaded by CatalogVersion and kept current from the product change feed. The trie holds every word start of
+// every distinct name, which is a lot of memory for large catalogs, so it is off unless enabled; without
+// it ProductService answers from the database.
+@Component
+@Order(0)
+public class ProductSuggester implements ProductChangeListener {
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node();
+    private volatile boolean ready;
+    // Catalog version of the last reload; changes it already contains are not applied again
+    private long loadedVersion;
+    // Changes delivered while a reload reads the counts, or null when none is running
+    private List<ProductChangeEvent> pending;
+
+    public ProductSuggester(ProductRepository productRepository,
+                            @Value("${shelfy.search.suggest.enabled:false}") boolean enabled) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void reloading() {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Load the product count of every distinct name and brand. Changes delivered while the counts are read
+    // are applied on top, unless the counts already contain them.
+    @Override
+    public void reload(long catalogVersion) {
+        if (!enabled) return;
+        List<NameCount> names = productRepository.countProductsByName();
+        List<BrandFacet> brands = productRepository.countProductsByBrand();
+        lock.writeLock().lock();
+        try {
+            root.children.clear();
+            root.completions.clear();
+            root.maxWeight = 0;
+            for (NameCount name : names) {
+                add(name.name(), Suggestion.Type.PRODUCT, (int) name.count());
+            }
+            for (BrandFacet brand : brands) {
+                add(brand.brand(), Suggestion.Type.BRAND, (int) brand.count());
+            }
+            ready = true;
+            loadedVersion = catalogVersion;
+            if (pending != null) {
+                pending.forEach(this::apply);
+                pending = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Follow the product change feed.
+    @Override
+    public void onProductChange(ProductChangeEvent event) {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            if (pending != null) pending.add(event);
+            apply(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock.
+    private void apply(ProductChangeEvent event) {
+        if (event.includedIn(loadedVersion)) return;
+        ProductDto before = event.before();
+        ProductDto after = event.after();
+        changed(before == null ? null : before.name(), before == null ? null : before.brand(),
+                after == null ? null : after.name(), after == null ? null : after.brand());
+    }
+
+    // Record a product being added.
+    public void added(String name, String brand) {
+        changed(null, null, name, brand);
+    }
+
+    // Record a product being removed.
+    public void removed(String name, String brand) {
+        changed(name, brand, null, null);
+    }
+
+    // Record a product's name and brand changing; null stands for "none".
+    public void changed(String oldName, String oldBrand, String newName, String newBrand) {
+        if (!enabled) return;
+        boolean sameName = Objects.equals(oldName, newName);
+        boolean sameBrand = Objects.equals(oldBrand, newBrand);
+        if (sameName && sameBrand) return;
+        lock.writeLock().lock();
+        try {
+            // Before the first reload the change is part of the counts it will read
+            if (!ready) return;
+            if (!sameName) {
+                remove(oldName, Suggestion.Type.PRODUCT);
+                add(newName, Suggestion.Type.PRODUCT, 1);
+            }
+            if (!sameBrand) {
+                remove(oldBrand, Suggestion.Type.BRAND);
+                add(newBrand, Suggestion.Type.BRAND, 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Up to limit completions for the prefix, most frequent first. Empty while not loaded.
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (!ready || key.isEmpty() || limit <= 0) return List.of();
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+            }
+            if (node == null) return List.of();
+            return top(node, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Best-first walk: subtrees are expanded in order of their heaviest completion, so completions
+    // leave the queue by descending weight. Caller holds the read lock.
+    private static List<Suggestion> top(Node start, int limit) {
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(Candidate.ORDER);
+        queue.add(new Candidate(start.maxWeight, null, start));
+        List<Suggestion> result = new ArrayList<>(limit);
+        Set<Suggestion> seen = new HashSet<>();
+        while (!queue.isEmpty() && result.size() < limit) {
+            Candidate next = queue.poll();
+            if (next.node == null) {
+                // The same completion can sit under several word starts of the prefix's subtree
+                if (seen.add(next.suggestion)) result.add(next.suggestion);
+                continue;
+            }
+            next.node.completions.forEach((s, weight) -> queue.add(new Candidate(weight, s, null)));
+            next.node.children.values().forEach(child -> queue.add(new Candidate(child.maxWeight, null, child)));
+        }
+        return result;
+    }
+
+    // Count more products for the completion under every word start. Caller holds the write lock.
+    private void add(String text, Suggestion.Type type, int products) {
+        if (text == null || text.isBlank()) return;
+        Suggestion suggestion = new Suggestion(text.strip(), type);
+        String key = normalize(text);
+        for (int start : wordStarts(key)) {
+            Node node = root;
+            List<Node> path = new ArrayList<>();
+            path.add(node);
+            for (int i = start; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+                path.add(node);
+            }
+            int weight = node.completions.merge(suggestion, products, Integer::sum);
+            for (Node n : path) n.maxWeight = Math.max(n.maxWeight, weight);
+        }
+    }
+
+    // Count one product less for the completion, pruning empty nodes. Caller holds the write lock.
+    private void remove(String text, Suggestion.Type type) {
+        if (text == null || text.isBlank()) return;
+        Suggestion suggestion = new Suggestion(text.strip(), type);
+        String key = normalize(text);
+        for (int start : wordStarts(key)) {
+            List<Node> path = new ArrayList<>();
+            Node node = root;
+            path.add(node);
+            for (int i = start; i < key.length() && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+                path.add(node);
+            }
+            if (node == null) continue;
+            node.completions.computeIfPresent(suggestion, (s, n) -> n > 1 ? n - 1 : null);
+            // Recompute the maxima bottom-up and drop nodes that no longer lead anywhere
+            for (int depth = path.size() - 1; depth >= 0; depth--) {
+                Node n = path.get(depth);
+                n.maxWeight = n.localMax();
+                if (depth > 0 && n.completions.isEmpty() && n.children.isEmpty()) {
+                    path.get(depth - 1).children.remove(key.charAt(start + depth - 1));
+                }
+            }
+        }
+    }
+
+    // Lower-cased text with runs of whitespace collapsed to one space and no leading space.
+    public static String normalize(String text) {
+        if (text == null) return "";
+        return text.toLowerCase(Locale.ROOT).strip().replaceAll("\\s+", " ");
+    }
+
+    // Offsets of the first character of every word in a normalized key.
+    private static List<Integer> wordStarts(String key) {
+        List<Integer> starts = new ArrayList<>();
+        for (int i = 0; i < key.length(); i++) {
+            if (i == 0 || key.charAt(i - 1) == ' ') starts.add(i);
+        }
+        return starts;
+    }
+
+    private static final class Node {
+        final Map<Character, Node> children = new HashMap<>(4);
+        final Map<Suggestion, Integer> completions = new HashMap<>(2);
+        int maxWeight;
+
+        int localMax() {
+            int max = 0;
+            for (int weight : completions.values()) max = Math.max(max, weight);
+            for (Node child : children.values()) max = Math.max(max, child.maxWeight);
+            return max;
+        }
+    }
+
+    // A queued completion (node == null) or subtree, ordered by weight and then alphabetically
+    // so equal weights come out in a stable order. Subtrees go before completions of the same
+    // weight, because they may still hold a completion that sorts first.
+    private record Candidate(int weight, Suggestion suggestion, Node node) {
+        static final Comparator<Candidate> ORDER = Comparator
+                .comparingInt(Candidate::weight).reversed()
+                .thenComparing(c -> c.node == null)
+                .thenComparing(c -> c.suggestion == null ? "" : c.suggestion.text());
+    }
+}
@@ -0,0 +1,105 @@
+package Shelfy.Shelfy_V1.search;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+// Opaque continuation token for keyset pagination over products.
+// The token carries the sort-key values (and id) of the last row of a page, so the next page is
+// fetched with a "greater than" predicate instead of an OFFSET, and the sort those values belong to.
+public final class SearchCursor {
+
+    // Token entry holding the sort, e.g. "defaultPrice:desc,name:asc"; not a product property
+    private static final String SORT = "sort";
+
+    // Product columns that keyset pagination can sort on, with their value parsers. All of them are NOT NULL
+    // (V5), which keyset predicates rely on: a null key would be encoded as the text "null".
+    private static final Map<String, Function<String, Object>> KEYS = Map.of(
+            "id", Long::valueOf,
+            "name", s -> s,
+            "brand", s -> s,
+            "unit", s -> s,
+            "imageUrl", s -> s,
+            "defaultPrice", BigDecimal::new,
+            "active", Boolean::valueOf,
+            "recommended", Boolean::valueOf);
+
+    private SearchCursor() {
+    }
+
+    // Whether every property in the sort can be used as a keyset column.
+    public static boolean supports(Sort sort) {
+        return sort.stream().allMatch(order -> KEYS.containsKey(order.getProperty()));
+    }
+
+    public static Set<String> sortableProperties() {
+        return KEYS.keySet();
+    }
+
+    // Encode the keys of a scroll position, and the sort it was read with, as a URL-safe token.
+    public static String encode(KeysetScrollPosition position, Sort sort) {
+        StringBuilder plain = new StringBuilder(SORT).append('=')
+                .append(URLEncoder.encode(describe(sort), StandardCharsets.UTF_8));
+        position.getKeys().forEach((property, value) -> {
+            if (value == null) throw new IllegalStateException("Null sort key " + property);
+            plain.append('&').append(property).append('=')
+                    .append(URLEncoder.encode(String.valueOf(value), StandardCharsets.UTF_8));
+        });
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(plain.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Decode a token back into a forward scroll position.
+    // Throws IllegalArgumentException when the token is malformed or does not match the sort.
+    public static KeysetScrollPosition decode(String token, Sort sort) {
+        String plain = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        Map<String, Object> keys = new LinkedHashMap<>();
+        String tokenSort = null;
+        for (String pair : plain.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) throw new IllegalArgumentException("Malformed cursor");
+            String property = pair.substring(0, eq);
+            String value = URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            if (property.equals(SORT)) {
+                tokenSort = value;
+                continue;
+            }
+            Function<String, Object> parser = KEYS.get(property);
+            if (parser == null) throw new IllegalArgumentException("Unknown cursor key " + property);
+            keys.put(property, parser.apply(value));
+        }
+        // A cursor from a differently sorted listing (other properties, order or directions) would skip or
+        // repeat rows
+        if (!describe(sort).equals(tokenSort)) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+        for (Sort.Order order : sort) {
+            if (!keys.containsKey(order.getProperty())) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort");
+            }
+        }
+        if (!keys.containsKey("id")) throw new IllegalArgumentException("Malformed cursor");
+        return ScrollPosition.forward(keys);
+    }
+
+    // The sort as "property:direction" entries in order, with ":ic" for case-insensitive ones.
+    private static String describe(Sort sort) {
+        StringBuilder description = new StringBuilder();
+        for (Sort.Order order : sort) {
+            if (!description.isEmpty()) description.append(',');
+            description.append(order.getProperty()).append(':').append(order.isAscending() ? "asc" : "desc");
+            if (order.isIgnoreCase()) description.append(":ic");
+        }
+        return description.toString();
+    }
+}
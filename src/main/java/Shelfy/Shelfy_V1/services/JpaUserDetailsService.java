@@ -1,6 +1,11 @@
 package Shelfy.Shelfy_V1.services;
 
 import Shelfy.Shelfy_V1.repositories.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -8,34 +13,58 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.List;
 
 // Service class for loading user details from the database for authentication.
+// Lookups are cached for a short TTL (cache=users under cache.*) because /auth/me is polled constantly.
+// UserCacheInvalidator evicts an entry when its user row is updated or deleted; the TTL bounds
+// staleness for changes made outside JPA, e.g. directly in the database.
 @Service
 public class JpaUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final Cache<String, CachedUser> cache;
 
-    public JpaUserDetailsService(UserRepository userRepository) {
+    public JpaUserDetailsService(UserRepository userRepository,
+                                 @Value("${security.user-cache.maximum-size:1000}") long maximumSize,
+                                 @Value("${security.user-cache.ttl:30s}") Duration ttl,
+                                 MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
     }
 
     // Load user details by username for authentication purposes.
     @Override
     public UserDetails loadUserByUsername(String username)
             throws UsernameNotFoundException {
-        // Fetch the user from the database
-        var u = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException(username));
+        // Fetch the user from the cache or the database; unknown usernames are not cached
+        var u = cache.get(username, key -> userRepository.findByUsername(key)
+                .map(user -> new CachedUser(user.getUsername(), user.getPassword(), user.isEnabled()))
+                .orElse(null));
+        if (u == null) throw new UsernameNotFoundException(username);
 
         // Map the user's roles to Spring Security authorities
         var authorities = List.of(new SimpleGrantedAuthority("ROLE_ADMIN")); // <- the key part
 
-        // Return a UserDetails object with the user's information and authorities
+        // Return a fresh UserDetails object on every call: the authentication manager erases the
+        // password of the instance it is handed, so a shared instance must never leave the cache
         return new User(
-                u.getUsername(), u.getPassword(),
-                u.isEnabled(), true, true, true,
+                u.username(), u.password(),
+                u.enabled(), true, true, true,
                 authorities
         );
     }
+
+    // Forget the cached details of a user, e.g. after it was disabled or its password changed.
+    public void evict(String username) {
+        if (username != null) cache.invalidate(username);
+    }
+
+    private record CachedUser(String username, String password, boolean enabled) {}
 }
@@ -2,8 +2,14 @@ package Shelfy.Shelfy_V1.services;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -13,6 +19,7 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 import static io.jsonwebtoken.Jwts.SIG.HS256;
 
@@ -24,21 +31,56 @@ public class JwtService {
     private final String issuer;
     private final Duration accessTtl;
     private final Duration refreshTtl;
+    // Parsers are immutable and thread-safe, so one instance serves every request
+    private final JwtParser parser;
+    // shelfy.jwt timers, by operation and outcome
+    private final Timer accessTimer;
+    private final Timer refreshTimer;
+    private final Timer parseValidTimer;
+    private final Timer parseInvalidTimer;
+
+    // Constructor for use outside the application context; timings go to the global registry.
+    public JwtService(String secret, String issuer, Duration accessTtl, Duration refreshTtl) {
+        this(secret, issuer, accessTtl, refreshTtl, Metrics.globalRegistry);
+    }
 
     // Constructor to initialize the JwtService with configuration values.
+    @Autowired
     public JwtService(
             @Value("${security.jwt.secret}") String secret,
             @Value("${security.jwt.issuer}") String issuer,
             @Value("${security.jwt.access-token-ttl}") Duration accessTtl,
-            @Value("${security.jwt.refresh-token-ttl}") Duration refreshTtl) {
+            @Value("${security.jwt.refresh-token-ttl}") Duration refreshTtl,
+            MeterRegistry meterRegistry) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.issuer = issuer;
         this.accessTtl = accessTtl;
         this.refreshTtl = refreshTtl;
+        this.parser = Jwts.parser()
+                // Set the expected issuer for validation
+                .requireIssuer(issuer)
+                // Set the signing key for signature validation
+                .verifyWith(key)
+                .build();
+        this.accessTimer = timer(meterRegistry, "generate-access", "success");
+        this.refreshTimer = timer(meterRegistry, "generate-refresh", "success");
+        this.parseValidTimer = timer(meterRegistry, "parse", "success");
+        this.parseInvalidTimer = timer(meterRegistry, "parse", "invalid");
+    }
+
+    private static Timer timer(MeterRegistry registry, String operation, String outcome) {
+        return Timer.builder("shelfy.jwt")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry);
     }
 
     // Generate a JWT access token with the specified subject and roles.
     public String generateAccessToken(String subject, Collection<String> roles) {
+        return accessTimer.record(() -> buildAccessToken(subject, roles));
+    }
+
+    private String buildAccessToken(String subject, Collection<String> roles) {
         Instant now = Instant.now();
         // Build and return the JWT token
         return Jwts.builder()
@@ -60,6 +102,10 @@ public class JwtService {
 
     // Generate a JWT refresh token with the specified subject.
     public String generateRefreshToken(String subject) {
+        return refreshTimer.record(() -> buildRefreshToken(subject));
+    }
+
+    private String buildRefreshToken(String subject) {
         Instant now = Instant.now();
         return Jwts.builder()
                 .subject(subject)
@@ -73,14 +119,16 @@ public class JwtService {
 
     // Parse and validate a JWT token, returning the claims if valid.
     public Jws<Claims> parse(String token) {
-        // Parse and validate the JWT token
-        return Jwts.parser()
-                // Set the expected issuer for validation
-                .requireIssuer(issuer)
-                // Set the signing key for signature validation
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token);
+        long start = System.nanoTime();
+        try {
+            // Parse and validate the JWT token
+            Jws<Claims> claims = parser.parseSignedClaims(token);
+            parseValidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            parseInvalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
     }
 
 }
\ No newline at end of file
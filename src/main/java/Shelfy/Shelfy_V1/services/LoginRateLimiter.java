@@ -0,0 +1,93 @@
+package Shelfy.Shelfy_V1.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Locale;
+
+// In-memory sliding-window limiter for failed login attempts, keyed by username and by client IP.
+// Each key keeps the timestamps of its attempts inside the window; idle keys expire with the
+// window, so memory is bounded by the number of recently active users and addresses.
+// An attempt counts from the moment it is let through, so concurrent guesses cannot overrun a limit
+// while their passwords are checked, and is refunded when it turns out to be a successful login.
+// The client IP is the address the request came from, after the trusted proxies'
+// X-Forwarded-For was applied (server.forward-headers-strategy).
+@Component
+public class LoginRateLimiter {
+
+    private final int perUsername;
+    private final int perIp;
+    private final long windowNanos;
+    private final Cache<String, ArrayDeque<Long>> attempts;
+
+    public LoginRateLimiter(@Value("${security.login.rate-limit.per-username:5}") int perUsername,
+                            @Value("${security.login.rate-limit.per-ip:20}") int perIp,
+                            @Value("${security.login.rate-limit.window:1m}") Duration window) {
+        this.perUsername = perUsername;
+        this.perIp = perIp;
+        this.windowNanos = window.toNanos();
+        this.attempts = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(window)
+                .build();
+    }
+
+    // An attempt that was let through; it counts against both limits until it is refunded.
+    public static final class Attempt {
+
+        private final ArrayDeque<Long> userWindow;
+        private final ArrayDeque<Long> ipWindow;
+        private final long at;
+
+        private Attempt(ArrayDeque<Long> userWindow, ArrayDeque<Long> ipWindow, long at) {
+            this.userWindow = userWindow;
+            this.ipWindow = ipWindow;
+            this.at = at;
+        }
+
+        // Take the attempt back, for a login that succeeded or was never checked.
+        public void refund() {
+            synchronized (userWindow) {
+                userWindow.removeLastOccurrence(at);
+            }
+            synchronized (ipWindow) {
+                ipWindow.removeLastOccurrence(at);
+            }
+        }
+    }
+
+    // Record an attempt for the username and the address. Returns null (and records nothing)
+    // when either of them already used up its attempts for the current window.
+    public Attempt tryAcquire(String username, String ip) {
+        String userKey = "u:" + (username == null ? "" : username.toLowerCase(Locale.ROOT));
+        String ipKey = "ip:" + ip;
+        long now = System.nanoTime();
+        ArrayDeque<Long> userWindow = attempts.get(userKey, k -> new ArrayDeque<>());
+        ArrayDeque<Long> ipWindow = attempts.get(ipKey, k -> new ArrayDeque<>());
+        // Lock in a fixed order so two requests never wait on each other
+        Object first = userKey.compareTo(ipKey) < 0 ? userWindow : ipWindow;
+        Object second = first == userWindow ? ipWindow : userWindow;
+        synchronized (first) {
+            synchronized (second) {
+                if (count(userWindow, now) >= perUsername || count(ipWindow, now) >= perIp) {
+                    return null;
+                }
+                userWindow.addLast(now);
+                ipWindow.addLast(now);
+                return new Attempt(userWindow, ipWindow, now);
+            }
+        }
+    }
+
+    // Drop timestamps that left the window and return how many remain. Caller holds the lock.
+    private int count(ArrayDeque<Long> window, long now) {
+        while (!window.isEmpty() && now - window.peekFirst() >= windowNanos) {
+            window.pollFirst();
+        }
+        return window.size();
+    }
+}
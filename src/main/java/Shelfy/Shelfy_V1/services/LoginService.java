@@ -0,0 +1,78 @@
+package Shelfy.Shelfy_V1.services;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Service for verifying login credentials off the request threads.
+// BCrypt is deliberately slow, so password checks run on a small dedicated pool with a bounded queue.
+// When the pool is saturated, or a username or address exceeds its rate limit, the attempt is
+// rejected right away with 429 instead of tying up a Tomcat worker that product searches need.
+@Service
+public class LoginService {
+
+    private final AuthenticationManager authManager;
+    private final LoginRateLimiter rateLimiter;
+    private final ThreadPoolExecutor executor;
+
+    public LoginService(AuthenticationConfiguration config,
+                        LoginRateLimiter rateLimiter,
+                        @Value("${security.login.threads:2}") int threads,
+                        @Value("${security.login.queue-capacity:32}") int queueCapacity) throws Exception {
+        this.authManager = config.getAuthenticationManager();
+        this.rateLimiter = rateLimiter;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "login-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Authenticate on the login pool. The future fails with 401 for bad credentials; 429 is thrown
+    // immediately when the attempt is rate limited or the pool has no room left. Only failed logins
+    // count against the rate limits.
+    public CompletableFuture<Authentication> authenticate(String username, String password, String clientIp) {
+        LoginRateLimiter.Attempt attempt = rateLimiter.tryAcquire(username, clientIp);
+        if (attempt == null) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts");
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    Authentication authentication =
+                            authManager.authenticate(new UsernamePasswordAuthenticationToken(username, password));
+                    attempt.refund();
+                    return authentication;
+                } catch (AuthenticationException e) {
+                    throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid username or password");
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            attempt.refund();
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Login is busy, try again shortly");
+        }
+    }
+}
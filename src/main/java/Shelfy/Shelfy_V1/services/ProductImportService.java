@@ -0,0 +1,395 @@
+package Shelfy.Shelfy_V1.services;
+
+import Shelfy.Shelfy_V1.DTOs.ImportJobStatus;
+import Shelfy.Shelfy_V1.DTOs.ImportSummary;
+import Shelfy.Shelfy_V1.entities.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Service for streaming catalog imports (CSV or NDJSON).
+// A job is created first and its body uploaded afterwards, so clients know the job id and can poll
+// progress while the upload is still being read.
+// The request thread parses the body row by row and hands fixed-size batches to a writer thread
+// through a bounded queue. When the writer falls behind, the parser blocks and stops reading the
+// request body, so memory stays constant no matter how large the upload is.
+@Service
+public class ProductImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    // Batches that may wait between parser and writer
+    private static final int QUEUE_CAPACITY = 4;
+    // Finished jobs kept around for polling
+    private static final int RETAINED_JOBS = 50;
+
+    private final ProductService productService;
+    private final ObjectReader productReader;
+    private final Semaphore slots;
+    private final ExecutorService writers;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public ProductImportService(ProductService productService,
+                                ObjectMapper objectMapper,
+                                @Value("${shelfy.import.max-concurrent-jobs:2}") int maxConcurrentJobs) {
+        this.productService = productService;
+        this.productReader = objectMapper.readerFor(Product.class);
+        this.slots = new Semaphore(maxConcurrentJobs);
+        this.writers = Executors.newFixedThreadPool(maxConcurrentJobs, r -> {
+            Thread t = new Thread(r, "product-import-writer");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writers.shutdownNow();
+    }
+
+    // Create a job waiting for its body.
+    public ImportJobStatus create() {
+        Job job = new Job(UUID.randomUUID().toString());
+        register(job);
+        return job.snapshot();
+    }
+
+    // Create a job and run it on the given body in one go.
+    public ImportJobStatus importStream(InputStream body, Format format) {
+        return upload(create().id(), body, format);
+    }
+
+    // Run an import: parse the body on the calling thread while a writer thread stores the batches.
+    // Returns once the whole body has been read; the writer may still be storing the last batches.
+    public ImportJobStatus upload(String id, InputStream body, Format format) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Import not found");
+        }
+        if (job.state != ImportJobStatus.State.PENDING) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Import has already been uploaded");
+        }
+        if (!slots.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many imports running");
+        }
+        if (!job.begin(format)) {
+            // Lost a race with a concurrent upload of the same job
+            slots.release();
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Import has already been uploaded");
+        }
+        try {
+            writers.execute(() -> write(job));
+        } catch (RuntimeException e) {
+            slots.release();
+            job.fail("Could not start writer: " + e.getMessage());
+            return job.snapshot();
+        }
+
+        try (var reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            switch (format) {
+                case CSV -> parseCsv(reader, job);
+                case NDJSON -> parseNdjson(reader, job);
+            }
+            job.flushBatch();
+        } catch (IOException | RuntimeException e) {
+            job.fail("Could not read import: " + e.getMessage());
+        } finally {
+            job.endOfInput();
+        }
+        return job.snapshot();
+    }
+
+    public Optional<ImportJobStatus> status(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(Job::snapshot);
+    }
+
+    // Writer loop: store batches until the parser signals the end of input.
+    // After a failure it keeps draining the queue so the parser never blocks on a dead job.
+    private void write(Job job) {
+        try {
+            while (true) {
+                Batch batch = job.queue.take();
+                if (batch == Batch.END) break;
+                if (job.failed()) continue;
+                try {
+                    job.record(productService.importChunk(batch.products(), batch.rows()));
+                } catch (RuntimeException e) {
+                    job.fail("Import failed: " + e.getMessage());
+                }
+            }
+            job.complete();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("Import interrupted");
+        } finally {
+            slots.release();
+        }
+    }
+
+    // NDJSON: one product object per line; blank lines are ignored.
+    private void parseNdjson(BufferedReader reader, Job job) throws IOException {
+        String line;
+        long row = 0;
+        while ((line = reader.readLine()) != null && !job.failed()) {
+            if (line.isBlank()) continue;
+            row++;
+            try {
+                job.add(productReader.readValue(line), row);
+            } catch (JsonProcessingException e) {
+                job.rejectRow(row, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    // CSV: a header row naming the columns, then one product per record.
+    // Known columns are name, brand, unit, defaultPrice, imageUrl, active and recommended
+    // (snake_case and the is_ prefixes used by the database are accepted too).
+    // Missing active defaults to true, missing recommended to false.
+    private void parseCsv(BufferedReader reader, Job job) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) return;
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT).replace("_", "").replaceFirst("^is", ""), i);
+        }
+
+        List<String> record;
+        long row = 0;
+        while ((record = csv.next()) != null && !job.failed()) {
+            if (record.size() == 1 && record.get(0).isBlank()) continue;
+            row++;
+            try {
+                Boolean active = flag(column(record, columns, "active"), true);
+                Boolean recommended = flag(column(record, columns, "recommended"), false);
+                if (active == null || recommended == null) {
+                    job.rejectRow(row, "active and recommended must be true or false");
+                    continue;
+                }
+                String price = column(record, columns, "defaultprice");
+                job.add(new Product(
+                        column(record, columns, "name"),
+                        column(record, columns, "brand"),
+                        column(record, columns, "unit"),
+                        (price == null || price.isBlank()) ? null : new BigDecimal(price.trim()),
+                        column(record, columns, "imageurl"),
+                        active,
+                        recommended), row);
+            } catch (NumberFormatException e) {
+                job.rejectRow(row, "Invalid defaultPrice");
+            }
+        }
+    }
+
+    // Parse a boolean column: missing or blank gives the default, anything but true/false gives null.
+    private static Boolean flag(String value, boolean missing) {
+        if (value == null || value.isBlank()) return missing;
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true" -> true;
+            case "false" -> false;
+            default -> null;
+        };
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return (index == null || index >= record.size()) ? null : record.get(index);
+    }
+
+    // Keep the job map bounded by dropping the oldest finished or never uploaded jobs.
+    private void register(Job job) {
+        jobs.put(job.id, job);
+        if (jobs.size() > RETAINED_JOBS) {
+            jobs.values().stream()
+                    .filter(j -> j != job && (j.finishedAt != null || j.state == ImportJobStatus.State.PENDING))
+                    .sorted((a, b) -> a.createdAt.compareTo(b.createdAt))
+                    .limit(jobs.size() - RETAINED_JOBS)
+                    .forEach(j -> jobs.remove(j.id));
+        }
+    }
+
+    private record Batch(List<Product> products, List<Long> rows) {
+        static final Batch END = new Batch(List.of(), List.of());
+    }
+
+    // State of one import. Counters are updated by the writer and read by pollers, hence synchronized.
+    private final class Job {
+        final String id;
+        final Instant createdAt = Instant.now();
+        final BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        final int batchSize = productService.getImportChunkSize();
+
+        // Owned by the parsing thread
+        private List<Product> pending = new ArrayList<>();
+        private List<Long> pendingRows = new ArrayList<>();
+
+        private Format format;
+        private Instant startedAt;
+        private long rowsRead;
+        private ImportSummary summary = ImportSummary.empty();
+        private volatile ImportJobStatus.State state = ImportJobStatus.State.PENDING;
+        private volatile Instant finishedAt;
+        private String message;
+
+        Job(String id) {
+            this.id = id;
+        }
+
+        // Start the upload; false when the job has already been started.
+        synchronized boolean begin(Format format) {
+            if (state != ImportJobStatus.State.PENDING) return false;
+            state = ImportJobStatus.State.RUNNING;
+            this.format = format;
+            startedAt = Instant.now();
+            return true;
+        }
+
+        boolean failed() {
+            return state == ImportJobStatus.State.FAILED;
+        }
+
+        void add(Product product, long row) {
+            synchronized (this) {
+                rowsRead++;
+            }
+            pending.add(product);
+            pendingRows.add(row);
+            if (pending.size() >= batchSize) flushBatch();
+        }
+
+        synchronized void rejectRow(long row, String reason) {
+            rowsRead++;
+            summary = summary.plus(new ImportSummary(0, 1, List.of(new ImportSummary.RowError(row, reason))));
+        }
+
+        // Hand the pending rows to the writer, blocking while the queue is full.
+        void flushBatch() {
+            if (pending.isEmpty()) return;
+            enqueue(new Batch(pending, pendingRows));
+            pending = new ArrayList<>();
+            pendingRows = new ArrayList<>();
+        }
+
+        // Always delivered, however the parse ended: the writer only exits, and releases the import slot,
+        // once it takes END. The batches of a failed job are skipped anyway, so they make room for it.
+        void endOfInput() {
+            try {
+                while (!queue.offer(Batch.END, 1, TimeUnit.SECONDS)) {
+                    if (failed()) queue.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Import interrupted");
+                queue.clear();
+                queue.offer(Batch.END);
+            }
+        }
+
+        private void enqueue(Batch batch) {
+            try {
+                // Poll with a timeout so a parser never waits forever on a writer that died
+                while (!queue.offer(batch, 1, TimeUnit.SECONDS)) {
+                    if (finishedAt != null) return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Import interrupted");
+            }
+        }
+
+        synchronized void record(ImportSummary chunk) {
+            summary = summary.plus(chunk);
+        }
+
+        synchronized void complete() {
+            if (state == ImportJobStatus.State.RUNNING) state = ImportJobStatus.State.COMPLETED;
+            finishedAt = Instant.now();
+        }
+
+        synchronized void fail(String reason) {
+            if (state == ImportJobStatus.State.FAILED) return;
+            state = ImportJobStatus.State.FAILED;
+            message = reason;
+            finishedAt = Instant.now();
+        }
+
+        synchronized ImportJobStatus snapshot() {
+            return new ImportJobStatus(id, state, format == null ? null : format.name().toLowerCase(Locale.ROOT), rowsRead,
+                    summary.inserted(), summary.failed(), summary.errors(), startedAt, finishedAt, message);
+        }
+    }
+
+    // Minimal RFC 4180 reader: comma separated, double-quoted fields may contain commas,
+    // line breaks and doubled quotes.
+    static final class CsvReader {
+        private final BufferedReader in;
+
+        CsvReader(BufferedReader in) {
+            this.in = in;
+        }
+
+        // Next record as a list of fields, or null at end of input.
+        List<String> next() throws IOException {
+            int c = in.read();
+            if (c == -1) return null;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        in.mark(1);
+                        int peek = in.read();
+                        if (peek == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (peek != -1) in.reset();
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = in.read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
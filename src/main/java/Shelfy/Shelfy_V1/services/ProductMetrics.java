@@ -0,0 +1,55 @@
+package Shelfy.Shelfy_V1.services;
+
+import Shelfy.Shelfy_V1.search.ProductFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+// Timers around ProductService operations:
+// shelfy.products.search (operation, filter shape), shelfy.products.lookup and shelfy.products.write
+// (operation), each with an outcome tag. A write timed inside a @Transactional method does not include
+// the commit; the full request time is in http.server.requests. Percentile histograms are enabled in
+// application.properties.
+@Component
+public class ProductMetrics {
+
+    private final MeterRegistry registry;
+
+    public ProductMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> T search(String operation, ProductFilter filter, Supplier<T> call) {
+        return time("shelfy.products.search", Tags.of("operation", operation, "filter", filter.shape()), call);
+    }
+
+    public void search(String operation, ProductFilter filter, Runnable call) {
+        search(operation, filter, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public <T> T lookup(Supplier<T> call) {
+        return time("shelfy.products.lookup", Tags.empty(), call);
+    }
+
+    public <T> T write(String operation, Supplier<T> call) {
+        return time("shelfy.products.write", Tags.of("operation", operation), call);
+    }
+
+    private <T> T time(String name, Tags tags, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "error";
+        try {
+            T result = call.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(registry.timer(name, tags.and("outcome", outcome)));
+        }
+    }
+}
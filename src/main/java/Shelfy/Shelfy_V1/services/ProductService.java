@@ -1,32 +1,202 @@
 package Shelfy.Shelfy_V1.services;
 
+import Shelfy.Shelfy_V1.DTOs.BrandFacet;
+import Shelfy.Shelfy_V1.DTOs.CursorPage;
+import Shelfy.Shelfy_V1.DTOs.FacetedSearchResult;
+import Shelfy.Shelfy_V1.DTOs.ImportSummary;
 import Shelfy.Shelfy_V1.DTOs.ProductDto;
+import Shelfy.Shelfy_V1.DTOs.SearchFacets;
+import Shelfy.Shelfy_V1.DTOs.Suggestion;
+import Shelfy.Shelfy_V1.cache.CatalogVersion;
+import Shelfy.Shelfy_V1.cache.ProductCache;
 import Shelfy.Shelfy_V1.entities.Product;
+import Shelfy.Shelfy_V1.events.ProductChangeLog;
 import Shelfy.Shelfy_V1.repositories.ProductRepository;
+import Shelfy.Shelfy_V1.repositories.ProductSpecifications;
+import Shelfy.Shelfy_V1.search.BrandDictionary;
+import Shelfy.Shelfy_V1.search.FullTextQuery;
+import Shelfy.Shelfy_V1.search.ProductFilter;
+import Shelfy.Shelfy_V1.search.ProductSearchIndex;
+import Shelfy.Shelfy_V1.search.ProductSuggester;
+import Shelfy.Shelfy_V1.search.SearchCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 // Service class for managing products.
 @Service
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductSearchIndex searchIndex;
+    private final BrandDictionary brandDictionary;
+    private final ProductSuggester suggester;
+    private final ProductCache productCache;
+    private final CatalogVersion catalogVersion;
+    private final ProductMetrics metrics;
+    private final ProductChangeLog changeLog;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    // Outside any read-only transaction the caller may have started, so the read goes to the primary
+    private final TransactionTemplate primaryReads;
+    private final Validator validator;
+    private final int importChunkSize;
 
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository,
+                          ProductSearchIndex searchIndex,
+                          BrandDictionary brandDictionary,
+                          ProductSuggester suggester,
+                          ProductCache productCache,
+                          CatalogVersion catalogVersion,
+                          ProductMetrics metrics,
+                          ProductChangeLog changeLog,
+                          EntityManager entityManager,
+                          PlatformTransactionManager transactionManager,
+                          Validator validator,
+                          @Value("${shelfy.import.chunk-size:500}") int importChunkSize) {
         this.productRepository = productRepository;
+        this.searchIndex = searchIndex;
+        this.brandDictionary = brandDictionary;
+        this.suggester = suggester;
+        this.productCache = productCache;
+        this.catalogVersion = catalogVersion;
+        this.metrics = metrics;
+        this.changeLog = changeLog;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.primaryReads = new TransactionTemplate(transactionManager);
+        this.primaryReads.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.validator = validator;
+        this.importChunkSize = importChunkSize;
     }
 
     // Add a new product to the repository.
+    @Transactional
     public void addProduct(Product product) {
-        productRepository.save(product);
+        Product saved = productRepository.save(product);
+        changeLog.created(saved);
+    }
+
+    // Add a list of products in a single transaction; the inserts go out as JDBC batches.
+    @Transactional
+    public List<Product> addProducts(List<Product> products) {
+        return metrics.write("create", () -> {
+            List<Product> saved = productRepository.saveAll(products);
+            saved.forEach(changeLog::created);
+            return saved;
+        });
+    }
+
+    // Import products in chunks, each chunk in its own transaction.
+    // Rows that fail validation or cannot be inserted are skipped and reported in the summary.
+    public ImportSummary importProducts(List<Product> products) {
+        ImportSummary summary = ImportSummary.empty();
+        for (int from = 0; from < products.size(); from += importChunkSize) {
+            List<Product> chunk = products.subList(from, Math.min(from + importChunkSize, products.size()));
+            List<Long> rows = LongStream.rangeClosed(from + 1L, from + (long) chunk.size()).boxed().toList();
+            summary = summary.plus(importChunk(chunk, rows));
+        }
+        return summary;
+    }
+
+    // Validate and insert one chunk in a single transaction, then flush and clear the persistence context.
+    // If the batch is rejected by the database, the rows are retried one by one to isolate the bad ones.
+    // rowNumbers holds the 1-based source row of each product, used in error reports.
+    public ImportSummary importChunk(List<Product> chunk, List<Long> rowNumbers) {
+        return metrics.write("import", () -> storeChunk(chunk, rowNumbers));
+    }
+
+    private ImportSummary storeChunk(List<Product> chunk, List<Long> rowNumbers) {
+        List<ImportSummary.RowError> errors = new ArrayList<>();
+        List<Product> valid = new ArrayList<>(chunk.size());
+        List<Long> validRows = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Set<ConstraintViolation<Product>> violations = validator.validate(chunk.get(i));
+            if (violations.isEmpty()) {
+                valid.add(chunk.get(i));
+                validRows.add(rowNumbers.get(i));
+            } else {
+                reportError(errors, rowNumbers.get(i), violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+            }
+        }
+
+        List<Product> stored;
+        try {
+            persistAll(valid);
+            stored = valid;
+        } catch (RuntimeException batchFailure) {
+            stored = new ArrayList<>();
+            for (int i = 0; i < valid.size(); i++) {
+                // The failed attempt already assigned ids, so retry with fresh copies
+                Product copy = copyOf(valid.get(i));
+                try {
+                    persistAll(List.of(copy));
+                    stored.add(copy);
+                } catch (RuntimeException rowFailure) {
+                    reportError(errors, validRows.get(i), NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage());
+                }
+            }
+        }
+        return new ImportSummary(stored.size(), chunk.size() - stored.size(), List.copyOf(errors));
+    }
+
+    // Persist products in one transaction, flushing them as JDBC batches and detaching them afterwards.
+    // The changes are recorded in the same transaction, so they take its catalog version.
+    private void persistAll(List<Product> products) {
+        if (products.isEmpty()) return;
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Product product : products) {
+                entityManager.persist(product);
+            }
+            entityManager.flush();
+            products.forEach(changeLog::created);
+            entityManager.clear();
+        });
+    }
+
+    public int getImportChunkSize() {
+        return importChunkSize;
+    }
+
+    private static void reportError(List<ImportSummary.RowError> errors, long row, String message) {
+        if (errors.size() < ImportSummary.MAX_REPORTED_ERRORS) {
+            errors.add(new ImportSummary.RowError(row, message));
+        }
+    }
+
+    private static Product copyOf(Product p) {
+        return new Product(p.getName(), p.getBrand(), p.getUnit(), p.getDefaultPrice(), p.getImageUrl(), p.isActive(), p.isRecommended());
     }
 
     // Retrieve all products from the repository.
@@ -39,50 +209,178 @@ public class ProductService {
         return productRepository.findByRecommendedTrue();
     }
 
-    // Normalize a string by converting it to lowercase or returning null if it's blank.
-    private static String norm(String s) {
-        return (s == null || s.isBlank()) ? null : s.toLowerCase(java.util.Locale.ROOT);
-    }
-
     // Find products based on various filters and pagination.
     public Page<ProductDto> findFiltered(String name, String brand,
                                          BigDecimal priceMin, BigDecimal priceMax,
                                          boolean recommended, Pageable pageable) {
-        name  = norm(name);
         brand = (brand == null || brand.isBlank()) ? null : brand; // exact match for brand currently
-        Page<Product> page = productRepository.findFiltered(name, brand, priceMin, priceMax, recommended, pageable);
-        return page.map(ProductDto::from);
+        ProductFilter filter = ProductFilter.of(name, brand == null ? null : List.of(brand),
+                priceMin, priceMax, recommended);
+        return metrics.search("filtered", filter, () ->
+                productRepository.findAll(ProductSpecifications.matching(filter), pageable).map(ProductDto::from));
     }
 
-    // Find a product by its ID and return it as a ProductDto.
+    // Find a product by its ID and return it as a ProductDto, served from the product cache when possible.
+    // A product written moments ago is loaded in a new read-write transaction, which keeps the read on the
+    // primary: a lagging replica would hand back, and cache, the row as it was before the write.
     public ProductDto findProductById(Long id) {
-        Product product = productRepository.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
-        return ProductDto.from(product);
+        return metrics.lookup(() -> productCache.get(id, key -> (productCache.readFromPrimary(key)
+                ? primaryReads.execute(status -> productRepository.findDtoById(key))
+                : productRepository.findDtoById(key))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"))));
     }
 
     // Set the recommendation status of a product.
     @Transactional
     public Product setRecommendation(Long id, boolean recommended) {
         Product p = productRepository.findById(id).orElseThrow(() -> new RuntimeException("Product not found"));
+        ProductDto before = ProductDto.from(p);
         p.setRecommended(recommended);
+        changeLog.updated(before, p);
         return p; // managed entity; flush by TX end
     }
 
     // Find products by name with various optional filters and sorting.
-    public List<Product> findProductsByName(String name, List<String> brands,
+    public List<ProductDto> findProductsByName(String name, List<String> brands,
                                             BigDecimal priceMin, BigDecimal priceMax,
                                             Boolean recommended,
                                             org.springframework.data.domain.Sort sort) {
-        // Normalize the name parameter for case-insensitive search
-        String normName = (name == null || name.isBlank()) ? null : name.trim();
-        // Use null for empty brands so the JPQL (:brands IS NULL OR p.brand IN :brands) branch works
-        List<String> normBrands = (brands == null || brands.isEmpty()) ? null : brands;
-        return productRepository.findByNameContainingIgnoreCase(normName, normBrands, priceMin, priceMax, recommended, sort);
+        ProductFilter filter = ProductFilter.of(name, brands, priceMin, priceMax, recommended);
+        return metrics.search("substring", filter, () -> searchByName(filter, sort));
+    }
+
+    private List<ProductDto> searchByName(ProductFilter filter, org.springframework.data.domain.Sort sort) {
+        // Serve from the in-memory index when it is enabled and loaded
+        var indexed = searchIndex.search(filter, sort);
+        if (indexed.isPresent()) {
+            return indexed.get();
+        }
+        return productRepository.searchDtos(filter, sort);
+    }
+
+    // Current catalog validators for conditional GETs.
+    public CatalogVersion.Stamp getCatalogStamp() {
+        return catalogVersion.current();
     }
 
-    // Retrieve a list of all unique product brands.
+    // Run the read behind a conditional GET and return it with the validator it is at least as new as.
+    public <T> CatalogVersion.Read<T> readCatalog(CatalogVersion.Stamp stamp, Supplier<T> read) {
+        return catalogVersion.read(stamp, read);
+    }
+
+    // Typeahead completions (product names and brands) for a prefix, most common first. Served from memory
+    // when the suggester is enabled and loaded, otherwise names come from the database and brands from the
+    // brand dictionary.
+    public List<Suggestion> suggest(String prefix, int limit) {
+        if (suggester.isReady()) return suggester.suggest(prefix, limit);
+        String key = ProductSuggester.normalize(prefix);
+        if (key.isEmpty()) return List.of();
+
+        String escaped = ProductSpecifications.escapeLike(key);
+        record Weighted(Suggestion suggestion, long count) {}
+        List<Weighted> candidates = new ArrayList<>();
+        productRepository.countProductsByNameWordPrefix(escaped + "%", "% " + escaped + "%", PageRequest.of(0, limit))
+                .forEach(n -> candidates.add(new Weighted(new Suggestion(n.name(), Suggestion.Type.PRODUCT), n.count())));
+        brandDictionary.snapshot().ifPresent(snapshot -> snapshot.facets().stream()
+                .filter(f -> {
+                    String brand = ProductSuggester.normalize(f.brand());
+                    return brand.startsWith(key) || brand.contains(" " + key);
+                })
+                .forEach(f -> candidates.add(new Weighted(new Suggestion(f.brand(), Suggestion.Type.BRAND), f.count()))));
+        return candidates.stream()
+                .sorted(Comparator.comparingLong(Weighted::count).reversed()
+                        .thenComparing(w -> w.suggestion().text()))
+                .limit(limit)
+                .map(Weighted::suggestion)
+                .toList();
+    }
+
+    // Full-text search over name and brand with prefix matching, ranked by relevance after the requested sort.
+    // Text without any searchable word falls back to the regular search.
+    public List<ProductDto> findProductsByFullText(ProductFilter filter, org.springframework.data.domain.Sort sort) {
+        return metrics.search("fulltext", filter, () -> {
+            String tsQuery = FullTextQuery.prefixQuery(filter.name());
+            if (tsQuery == null) {
+                return searchByName(ProductFilter.of(null, filter.brands(), filter.priceMin(), filter.priceMax(),
+                        filter.recommended()), sort);
+            }
+            try {
+                return productRepository.fullTextSearchDtos(tsQuery, filter, sort);
+            } catch (InvalidDataAccessApiUsageException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sort");
+            }
+        });
+    }
+
+    // Search and aggregate brand, recommendation and price-bucket facets over the result in the same pass,
+    // so a filtered category page needs a single query.
+    public FacetedSearchResult findProductsWithFacets(ProductFilter filter, org.springframework.data.domain.Sort sort,
+                                                      BigDecimal priceBucketWidth) {
+        if (priceBucketWidth.signum() <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "priceBucket must be positive");
+        }
+        return metrics.search("faceted", filter, () -> {
+            List<ProductDto> items = searchByName(filter, sort);
+            return new FacetedSearchResult(items, SearchFacets.of(items, priceBucketWidth));
+        });
+    }
+
+    // Feed every product matching the filter to the sink, one row at a time from a database cursor.
+    // Rows are projected into DTOs, so the persistence context never grows with the result.
+    @Transactional(readOnly = true)
+    public void streamProductsByName(ProductFilter filter, org.springframework.data.domain.Sort sort,
+                                     Consumer<ProductDto> sink) {
+        metrics.search("stream", filter, () -> {
+            try (Stream<ProductDto> rows = productRepository.streamDtos(filter, sort)) {
+                rows.forEach(sink);
+            }
+        });
+    }
+
+    // Find one page of products after the given cursor, ordered by the sort plus id as tie-breaker.
+    // Uses keyset pagination so every page costs the same; the total is only counted on request.
+    @Transactional(readOnly = true)
+    public CursorPage<ProductDto> findProductsPage(ProductFilter filter,
+                                                   org.springframework.data.domain.Sort sort,
+                                                   String cursor, int size, boolean withTotal) {
+        if (!SearchCursor.supports(sort)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Cursor pagination can only sort by " + SearchCursor.sortableProperties());
+        }
+        ScrollPosition position;
+        try {
+            position = (cursor == null || cursor.isBlank()) ? ScrollPosition.keyset() : SearchCursor.decode(cursor, sort);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+        return metrics.search("page", filter, () -> scrollPage(filter, sort, position, size, withTotal));
+    }
+
+    private CursorPage<ProductDto> scrollPage(ProductFilter filter, org.springframework.data.domain.Sort sort,
+                                              ScrollPosition position, int size, boolean withTotal) {
+        var spec = ProductSpecifications.matching(filter);
+        Window<Product> window = productRepository.findBy(spec, q -> q.sortBy(sort).limit(size).scroll(position));
+
+        List<ProductDto> items = window.stream().map(ProductDto::from).toList();
+        String next = (window.hasNext() && !window.isEmpty())
+                ? SearchCursor.encode((KeysetScrollPosition) window.positionAt(window.size() - 1), sort)
+                : null;
+        Long total = withTotal ? productRepository.count(spec) : null;
+        return new CursorPage<>(items, next, total);
+    }
+
+    // Retrieve a list of all unique product brands, from memory once the brand dictionary is loaded.
     public List<String> getAllUniqueBrands() {
-        return productRepository.findAllUniqueBrands();
+        return brandDictionary.snapshot()
+                .map(BrandDictionary.Snapshot::brands)
+                .orElseGet(productRepository::findAllUniqueBrands);
+    }
+
+    // Product counts per brand, from memory once the brand dictionary is loaded.
+    public List<BrandFacet> getBrandFacets() {
+        return brandDictionary.snapshot()
+                .map(BrandDictionary.Snapshot::facets)
+                .orElseGet(productRepository::countProductsByBrand);
     }
 
     // Get a product by its ID.
@@ -90,10 +388,16 @@ public class ProductService {
         return productRepository.findById(id).orElseThrow(() -> new RuntimeException("Product not found"));
     }
 
-    // Update an existing product with new details.
+    // Update an existing product with new details. Transactional, so the product is read from the primary
+    // and the change is recorded with the state it really had.
+    @Transactional
     public Product updateProduct(Long id, Product updatedProduct) {
-        Product product = productRepository.findById(id).orElseThrow(() -> new RuntimeException("Product not found"));
+        return metrics.write("update", () -> update(id, updatedProduct));
+    }
 
+    private Product update(Long id, Product updatedProduct) {
+        Product product = productRepository.findById(id).orElseThrow(() -> new RuntimeException("Product not found"));
+        ProductDto before = ProductDto.from(product);
 
         product.setName(updatedProduct.getName());
         product.setActive(updatedProduct.isActive());
@@ -103,14 +407,20 @@ public class ProductService {
         product.setDefaultPrice(updatedProduct.getDefaultPrice());
         product.setRecommended(updatedProduct.isRecommended());
         product.setImageUrl(updatedProduct.getImageUrl());
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        changeLog.updated(before, saved);
+        return saved;
     }
 
-    // Remove a product from the repository by its ID.
+    // Remove a product from the repository by its ID, reading it from the primary like updateProduct.
+    @Transactional
     public void removeProduct(Long id) {
-        Product product = productRepository.findById(id).orElseThrow(() -> new RuntimeException("Product not found"));
-        productRepository.delete(product);
+        metrics.write("delete", () -> {
+            Product product = productRepository.findById(id).orElseThrow(() -> new RuntimeException("Product not found"));
+            productRepository.delete(product);
+            changeLog.deleted(product);
+            return null;
+        });
     }
 
-
 }
@@ -0,0 +1,46 @@
+package Shelfy.Shelfy_V1.services;
+
+import Shelfy.Shelfy_V1.entities.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// JPA entity listener that evicts cached UserDetails whenever a user row is updated or deleted,
+// so a disabled account or a changed password takes effect on the next lookup.
+@Component
+public class UserCacheInvalidator {
+
+    // Resolved lazily: the listener is created while the EntityManagerFactory is still being built
+    private final ObjectProvider<JpaUserDetailsService> userDetailsService;
+
+    public UserCacheInvalidator(ObjectProvider<JpaUserDetailsService> userDetailsService) {
+        this.userDetailsService = userDetailsService;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void changed(User user) {
+        String username = user.getUsername();
+        String loadedUsername = user.getLoadedUsername();
+        // Evict once now and once after commit, so a lookup racing with the transaction cannot
+        // put the old row back into the cache
+        Runnable evict = () -> {
+            JpaUserDetailsService service = userDetailsService.getIfAvailable();
+            if (service == null) return;
+            service.evict(username);
+            service.evict(loadedUsername);
+        };
+        evict.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        }
+    }
+}
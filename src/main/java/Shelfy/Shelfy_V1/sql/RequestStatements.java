@@ -0,0 +1,57 @@
+package Shelfy.Shelfy_V1.sql;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// SQL statements executed while serving one HTTP request, grouped by statement text and bind shape.
+// A statement that repeats many times with the same shape is the signature of an N+1 query.
+public final class RequestStatements {
+
+    // Distinct statements remembered per request; a bulk import would otherwise grow this without bound
+    private static final int MAX_DISTINCT = 50;
+
+    private int count;
+    private long nanos;
+    private int untracked;
+    private final Map<String, Group> groups = new LinkedHashMap<>();
+
+    private static final class Group {
+        int count;
+        long nanos;
+    }
+
+    synchronized void record(String sql, String binds, long elapsedNanos) {
+        count++;
+        nanos += elapsedNanos;
+        String key = binds.isEmpty() ? sql : sql + "  [" + binds + "]";
+        Group group = groups.get(key);
+        if (group == null) {
+            if (groups.size() >= MAX_DISTINCT) {
+                untracked++;
+                return;
+            }
+            group = new Group();
+            groups.put(key, group);
+        }
+        group.count++;
+        group.nanos += elapsedNanos;
+    }
+
+    public synchronized int count() {
+        return count;
+    }
+
+    public synchronized long nanos() {
+        return nanos;
+    }
+
+    // One line per distinct statement, most frequent first: "12x  3.4 ms  select ...  [Long]".
+    public synchronized String describe() {
+        String lines = groups.entrySet().stream()
+                .sorted((a, b) -> Integer.compare(b.getValue().count, a.getValue().count))
+                .map(e -> String.format("  %dx %8.1f ms  %s", e.getValue().count, e.getValue().nanos / 1e6, e.getKey()))
+                .collect(Collectors.joining("\n"));
+        return untracked == 0 ? lines : lines + "\n  (" + untracked + " more statements not listed)";
+    }
+}
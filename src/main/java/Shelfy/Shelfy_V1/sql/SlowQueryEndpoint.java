@@ -0,0 +1,29 @@
+package Shelfy.Shelfy_V1.sql;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+// Actuator endpoint (/actuator/slowqueries) with the statements that took the most database time
+// recently. DELETE clears the statistics, e.g. before measuring a change.
+@Component
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+    private final SlowQueryReport report;
+
+    public SlowQueryEndpoint(SlowQueryReport report) {
+        this.report = report;
+    }
+
+    @ReadOperation
+    public SlowQueryReport.Report slowQueries() {
+        return report.report();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        report.reset();
+    }
+}
@@ -0,0 +1,118 @@
+package Shelfy.Shelfy_V1.sql;
+
+import Shelfy.Shelfy_V1.DTOs.SlowQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Rolling per-statement execution statistics behind /actuator/slowqueries.
+// Statistics are kept in two generations that rotate every window, so the report always covers
+// between one and two windows of recent traffic. Statements are keyed by their SQL text, which
+// carries placeholders rather than values, so the number of distinct keys stays small.
+@Component
+public class SlowQueryReport {
+
+    // Distinct statements tracked per generation; anything beyond is counted as dropped
+    private static final int MAX_STATEMENTS = 1000;
+
+    private final int size;
+    private final long windowNanos;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile Generation current = new Generation(System.nanoTime());
+    private volatile Generation previous = new Generation(System.nanoTime());
+
+    public SlowQueryReport(@Value("${shelfy.sql.report.size:20}") int size,
+                           @Value("${shelfy.sql.report.window:5m}") Duration window) {
+        this.size = size;
+        this.windowNanos = window.toNanos();
+    }
+
+    public record Report(Duration window, long droppedStatements, List<SlowQuery> statements) {
+    }
+
+    private static final class Generation {
+        final long startedAt;
+        final Map<String, Stats> statements = new ConcurrentHashMap<>();
+
+        Generation(long startedAt) {
+            this.startedAt = startedAt;
+        }
+    }
+
+    private static final class Stats {
+        final LongAdder executions = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+    }
+
+    void record(String sql, long elapsedNanos, boolean success) {
+        Generation generation = rotateIfDue();
+        Stats stats = generation.statements.get(sql);
+        if (stats == null) {
+            if (generation.statements.size() >= MAX_STATEMENTS) {
+                dropped.incrementAndGet();
+                return;
+            }
+            stats = generation.statements.computeIfAbsent(sql, k -> new Stats());
+        }
+        stats.executions.increment();
+        if (!success) stats.failures.increment();
+        stats.totalNanos.add(elapsedNanos);
+        stats.maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+    }
+
+    // The statements with the highest total time over the last one to two windows.
+    public Report report() {
+        rotateIfDue();
+        Map<String, long[]> merged = new HashMap<>();
+        for (Generation generation : List.of(previous, current)) {
+            generation.statements.forEach((sql, stats) -> {
+                long[] totals = merged.computeIfAbsent(sql, k -> new long[4]);
+                totals[0] += stats.executions.sum();
+                totals[1] += stats.failures.sum();
+                totals[2] += stats.totalNanos.sum();
+                totals[3] = Math.max(totals[3], stats.maxNanos.get());
+            });
+        }
+        List<SlowQuery> top = merged.entrySet().stream()
+                .filter(e -> e.getValue()[0] > 0)
+                .map(e -> {
+                    long[] t = e.getValue();
+                    return new SlowQuery(e.getKey(), t[0], t[1], t[2] / 1e6, t[2] / 1e6 / t[0], t[3] / 1e6);
+                })
+                .sorted(Comparator.comparingDouble(SlowQuery::totalMillis).reversed())
+                .limit(size)
+                .toList();
+        return new Report(Duration.ofNanos(windowNanos), dropped.get(), top);
+    }
+
+    public synchronized void reset() {
+        long now = System.nanoTime();
+        previous = new Generation(now);
+        current = new Generation(now);
+        dropped.set(0);
+    }
+
+    private Generation rotateIfDue() {
+        Generation generation = current;
+        if (System.nanoTime() - generation.startedAt < windowNanos) return generation;
+        synchronized (this) {
+            if (current == generation) {
+                long now = System.nanoTime();
+                // After a quiet spell longer than a window the old generation is no longer recent
+                previous = (now - generation.startedAt < 2 * windowNanos) ? generation : new Generation(now);
+                current = new Generation(now);
+            }
+            return current;
+        }
+    }
+}
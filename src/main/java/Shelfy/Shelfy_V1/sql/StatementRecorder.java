@@ -0,0 +1,104 @@
+package Shelfy.Shelfy_V1.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Listener on the proxied DataSource that sees every SQL statement the application executes.
+// It times each statement, feeds the rolling slow query report, attributes the statement to the
+// HTTP request running on the current thread (see StatementStatsFilter) and logs slow statements.
+// Only the shape of the bind parameters (their JDBC types) is recorded, never their values.
+@Component
+public class StatementRecorder implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementRecorder.class);
+    private static final String STARTED_AT = StatementRecorder.class.getName() + ".startedAt";
+
+    private final SlowQueryReport report;
+    private final long slowStatementNanos;
+    private final ThreadLocal<RequestStatements> currentRequest = new ThreadLocal<>();
+
+    public StatementRecorder(SlowQueryReport report,
+                             @Value("${shelfy.sql.slow-statement:200ms}") Duration slowStatement) {
+        this.report = report;
+        this.slowStatementNanos = slowStatement.toNanos();
+    }
+
+    // Start attributing statements on this thread to a new request.
+    public RequestStatements beginRequest() {
+        RequestStatements statements = new RequestStatements();
+        currentRequest.set(statements);
+        return statements;
+    }
+
+    public void endRequest() {
+        currentRequest.remove();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(STARTED_AT, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long startedAt = execInfo.getCustomValue(STARTED_AT, Long.class);
+        if (startedAt == null || queryInfoList.isEmpty()) return;
+        long elapsed = System.nanoTime() - startedAt;
+        // A Statement batch runs several queries in one call; split its time evenly between them
+        long share = elapsed / queryInfoList.size();
+        RequestStatements request = currentRequest.get();
+        for (QueryInfo query : queryInfoList) {
+            String binds = bindShape(query.getParametersList());
+            report.record(query.getQuery(), share, execInfo.isSuccess());
+            if (request != null) request.record(query.getQuery(), binds, share);
+        }
+        if (elapsed >= slowStatementNanos && log.isWarnEnabled()) {
+            log.warn("Slow SQL ({} ms{}): {}", String.format("%.1f", elapsed / 1e6),
+                    execInfo.isBatch() ? ", batch of " + execInfo.getBatchSize() : "",
+                    queryInfoList.stream()
+                            .map(q -> q.getQuery() + describeBinds(bindShape(q.getParametersList())))
+                            .collect(Collectors.joining("; ")));
+        }
+    }
+
+    private static String describeBinds(String shape) {
+        return shape.isEmpty() ? "" : "  [" + shape + "]";
+    }
+
+    // The JDBC types bound to a statement, e.g. "String, Long", followed by "x50" for a batch.
+    static String bindShape(List<List<ParameterSetOperation>> parametersList) {
+        if (parametersList == null || parametersList.isEmpty()) return "";
+        String shape = parametersList.get(0).stream()
+                .sorted(Comparator.comparing(StatementRecorder::parameterIndex))
+                .map(StatementRecorder::parameterType)
+                .collect(Collectors.joining(", "));
+        return parametersList.size() == 1 ? shape : shape + " x" + parametersList.size();
+    }
+
+    private static String parameterIndex(ParameterSetOperation operation) {
+        Object index = operation.getArgs()[0];
+        // Positional parameters sort numerically; named ones (callable statements) by name
+        return index instanceof Integer i ? String.format("%05d", i) : String.valueOf(index);
+    }
+
+    private static String parameterType(ParameterSetOperation operation) {
+        if (ParameterSetOperation.isSetNullParameterOperation(operation)) return "null";
+        String method = operation.getMethod().getName();
+        Object[] args = operation.getArgs();
+        if (method.equals("setObject") && args.length > 1 && args[1] != null) {
+            return args[1].getClass().getSimpleName();
+        }
+        return method.startsWith("set") ? method.substring(3) : method;
+    }
+}
@@ -0,0 +1,26 @@
+-- Schema as previously created by Hibernate (ddl-auto=update).
+-- Existing databases are baselined at this version, so this script only runs on empty databases.
+
+CREATE SEQUENCE IF NOT EXISTS products_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS products (
+    id             BIGINT         NOT NULL,
+    name           VARCHAR(255),
+    brand          VARCHAR(255),
+    unit           VARCHAR(255),
+    default_price  NUMERIC(38, 2),
+    image_url      VARCHAR(255),
+    is_active      BOOLEAN        NOT NULL,
+    is_recommended BOOLEAN        NOT NULL,
+    created_at     TIMESTAMP(6),
+    last_update    TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username VARCHAR(100) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    enabled  BOOLEAN      NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,17 @@
+-- Indexes for the product search predicates.
+
+-- Substring search: LOWER(name) LIKE '%...%' can use a trigram index on the same expression
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS products_name_trgm_idx ON products USING gin (lower(name) gin_trgm_ops);
+
+-- Brand filter (IN list), optionally narrowed by a price range, and the brand facet GROUP BY
+CREATE INDEX IF NOT EXISTS products_brand_price_idx ON products (brand, default_price);
+
+-- Recommended products are a small subset, so only index those rows
+CREATE INDEX IF NOT EXISTS products_recommended_idx ON products (id) WHERE is_recommended;
+
+-- Older databases created products_seq with INCREMENT BY 1; the entity allocates ids in blocks of 50.
+-- Move the sequence past every existing id so the next block cannot collide.
+ALTER SEQUENCE products_seq INCREMENT BY 50;
+SELECT setval('products_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM products) + 50,
+                                       (SELECT last_value FROM products_seq)));
@@ -0,0 +1,7 @@
+-- Full-text search over name and brand. The 'simple' configuration neither stems nor drops stop words,
+-- which suits product names and brands in any language; prefix queries cover partially typed words.
+ALTER TABLE products ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+                         setweight(to_tsvector('simple', coalesce(brand, '')), 'B')) STORED;
+
+CREATE INDEX IF NOT EXISTS products_search_vector_idx ON products USING gin (search_vector);
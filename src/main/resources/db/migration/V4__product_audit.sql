@@ -0,0 +1,15 @@
+-- Audit trail of product changes, written in batches by ProductAuditWriter after the change committed.
+-- Rows are appended in change order, so id orders the changes of one instance; before_state is null
+-- for creations and after_state for deletions.
+CREATE TABLE IF NOT EXISTS product_audit (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    product_id   BIGINT       NOT NULL,
+    change_type  VARCHAR(16)  NOT NULL,
+    changed_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    changed_by   VARCHAR(100),
+    before_state JSONB,
+    after_state  JSONB,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS product_audit_product_idx ON product_audit (product_id, id);
@@ -0,0 +1,22 @@
+-- The entity has always required these (@NotBlank / @NotNull), and keyset pagination relies on sort keys
+-- never being null. Rows written around the entity get placeholders first, so the constraints can be added;
+-- they are deactivated, so they can be found and fixed (or removed) instead of passing for real products.
+UPDATE products
+SET name          = COALESCE(name, 'Unnamed product ' || id),
+    brand         = COALESCE(brand, 'Unknown'),
+    unit          = COALESCE(unit, 'piece'),
+    default_price = COALESCE(default_price, 0),
+    image_url     = COALESCE(image_url, ''),
+    is_active     = false
+WHERE name IS NULL
+   OR brand IS NULL
+   OR unit IS NULL
+   OR default_price IS NULL
+   OR image_url IS NULL;
+
+ALTER TABLE products
+    ALTER COLUMN name SET NOT NULL,
+    ALTER COLUMN brand SET NOT NULL,
+    ALTER COLUMN unit SET NOT NULL,
+    ALTER COLUMN default_price SET NOT NULL,
+    ALTER COLUMN image_url SET NOT NULL;
@@ -0,0 +1,22 @@
+-- Catalog version shared by every instance, the validator behind conditional catalog GETs. Each statement
+-- that writes products bumps it in the same transaction, whatever path the write took, so a node never
+-- hands out a version whose changes are not yet visible. Concurrent product writes queue on this one row
+-- until they commit.
+CREATE TABLE IF NOT EXISTS catalog_version (
+    id      SMALLINT PRIMARY KEY CHECK (id = 1),
+    version BIGINT   NOT NULL
+);
+
+INSERT INTO catalog_version (id, version) VALUES (1, 1) ON CONFLICT (id) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION bump_catalog_version() RETURNS trigger AS $$
+BEGIN
+    UPDATE catalog_version SET version = version + 1 WHERE id = 1;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS products_catalog_version ON products;
+CREATE TRIGGER products_catalog_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON products
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_catalog_version();
@@ -0,0 +1,20 @@
+-- One catalog version per transaction instead of one per statement. The application claims its version
+-- when it records a change, so it knows which version its own writes end up at; the trigger still covers
+-- every other path. A version is claimed under the row lock and rolled back with its transaction, so the
+-- committed versions stay gapless.
+ALTER TABLE catalog_version ADD COLUMN IF NOT EXISTS txid BIGINT;
+
+CREATE OR REPLACE FUNCTION claim_catalog_version() RETURNS BIGINT AS $$
+    UPDATE catalog_version
+    SET version = CASE WHEN txid = txid_current() THEN version ELSE version + 1 END,
+        txid    = txid_current()
+    WHERE id = 1
+    RETURNING version;
+$$ LANGUAGE sql;
+
+CREATE OR REPLACE FUNCTION bump_catalog_version() RETURNS trigger AS $$
+BEGIN
+    PERFORM claim_catalog_version();
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,95 @@
+package Shelfy.Shelfy_V1.cache;
+
+import Shelfy.Shelfy_V1.events.ProductChangeListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// A version is only handed out once this instance reflects it: its own writes once they are delivered,
+// anyone else's once the change listeners were reloaded.
+class CatalogVersionTests {
+
+	// The committed catalog_version row
+	private final AtomicLong stored = new AtomicLong(1);
+	private final ProductChangeListener listener = mock(ProductChangeListener.class);
+	private CatalogVersion catalogVersion;
+
+	@BeforeEach
+	void setUp() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		when(jdbcTemplate.queryForObject(eq("SELECT version FROM catalog_version WHERE id = 1"), eq(Long.class)))
+				.thenAnswer(call -> stored.get());
+		when(jdbcTemplate.queryForObject(eq("SELECT claim_catalog_version()"), eq(Long.class)))
+				.thenAnswer(call -> stored.get() + 1);
+		var beans = new StaticListableBeanFactory();
+		beans.addBean("listener", listener);
+		catalogVersion = new CatalogVersion(jdbcTemplate, mock(PlatformTransactionManager.class),
+				beans.getBeanProvider(ProductChangeListener.class), Duration.ZERO, "");
+		catalogVersion.load();
+	}
+
+	@AfterEach
+	void tearDown() {
+		catalogVersion.shutdown();
+	}
+
+	@Test
+	void handsOutALocalWriteOnceItIsDelivered() {
+		assertThat(catalogVersion.current().version()).isEqualTo(1);
+
+		long claimed = catalogVersion.claim();
+		stored.set(claimed);
+		assertThat(catalogVersion.current().version()).isEqualTo(1);
+
+		catalogVersion.committed(claimed);
+		assertThat(catalogVersion.current()).isEqualTo(new CatalogVersion.Stamp(2, "W/\"catalog-2\""));
+		verify(listener, times(1)).reload(anyLong());
+	}
+
+	@Test
+	void reloadsAfterAnotherInstancesWrite() throws InterruptedException {
+		stored.set(2);
+
+		assertThat(catalogVersion.current().version()).isEqualTo(1);
+		awaitVersion(2);
+		var order = inOrder(listener);
+		order.verify(listener).reloading();
+		order.verify(listener).reload(2);
+	}
+
+	// A rolled-back transaction gives its version up, and a write committed elsewhere under the same number
+	// is not taken for this instance's own.
+	@Test
+	void reloadsWhenAnAbandonedVersionIsWrittenElsewhere() throws InterruptedException {
+		long claimed = catalogVersion.claim();
+		catalogVersion.abandoned(claimed);
+		stored.set(claimed);
+
+		catalogVersion.current();
+		awaitVersion(claimed);
+		verify(listener).reload(claimed);
+	}
+
+	private void awaitVersion(long expected) throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			if (catalogVersion.current().version() == expected) break;
+			Thread.sleep(20);
+		}
+		assertThat(catalogVersion.current().version()).isEqualTo(expected);
+	}
+}
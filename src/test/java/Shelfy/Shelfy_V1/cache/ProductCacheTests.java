@@ -0,0 +1,127 @@
+package Shelfy.Shelfy_V1.cache;
+
+import Shelfy.Shelfy_V1.DTOs.ProductDto;
+import Shelfy.Shelfy_V1.entities.Product;
+import Shelfy.Shelfy_V1.events.ProductChangeListener;
+import Shelfy.Shelfy_V1.events.ProductChangeLog;
+import Shelfy.Shelfy_V1.repositories.ProductRepository;
+import Shelfy.Shelfy_V1.search.BrandDictionary;
+import Shelfy.Shelfy_V1.search.ProductSearchIndex;
+import Shelfy.Shelfy_V1.search.ProductSuggester;
+import Shelfy.Shelfy_V1.services.ProductMetrics;
+import Shelfy.Shelfy_V1.services.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Every write path of ProductService must evict the cached product through the change feed, and the next read
+// of it must not come from a lagging replica.
+class ProductCacheTests {
+
+	private static final Long ID = 7L;
+
+	private final ProductRepository repository = mock(ProductRepository.class);
+	private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+	private final AtomicInteger loads = new AtomicInteger();
+	private ProductCache cache;
+	private ProductService productService;
+
+	@BeforeEach
+	void setUp() {
+		var beans = new StaticListableBeanFactory();
+		cache = new ProductCache(100, Duration.ofMinutes(10), Duration.ofMinutes(1), beans.getBeanProvider(ProductCacheTier.class),
+				new SimpleMeterRegistry());
+		beans.addBean("productCache", cache);
+		productService = new ProductService(repository, mock(ProductSearchIndex.class), mock(BrandDictionary.class),
+				mock(ProductSuggester.class), cache, mock(CatalogVersion.class), new ProductMetrics(new SimpleMeterRegistry()),
+				new ProductChangeLog(beans.getBeanProvider(ProductChangeListener.class), mock(CatalogVersion.class)), mock(EntityManager.class),
+				transactionManager, mock(Validator.class), 500);
+
+		when(repository.findById(ID)).thenAnswer(call -> Optional.of(product()));
+		when(repository.save(any())).thenAnswer(call -> call.getArgument(0));
+		cached();
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	void keepsServingCachedProductWithoutWrites() {
+		cached();
+		assertThat(loads).hasValue(1);
+	}
+
+	@Test
+	void evictsOnUpdate() {
+		productService.updateProduct(ID, product());
+		assertEvicted();
+	}
+
+	@Test
+	void evictsOnRecommendationChange() {
+		productService.setRecommendation(ID, true);
+		assertEvicted();
+	}
+
+	@Test
+	void evictsOnDelete() {
+		productService.removeProduct(ID);
+		assertEvicted();
+	}
+
+	@Test
+	void evictsOnImport() {
+		productService.importChunk(List.of(product()), List.of(1L));
+		assertEvicted();
+	}
+
+	// A replica may not have the write yet, so the evicted product is reloaded in a read-write transaction,
+	// which keeps the read on the primary. Products nobody wrote here are still read from a replica.
+	@Test
+	void reloadsAProductWrittenHereFromThePrimary() {
+		when(repository.findDtoById(any())).thenAnswer(call -> Optional.of(ProductDto.from(product())));
+		productService.updateProduct(ID, product());
+
+		productService.findProductById(8L);
+		verify(transactionManager, never()).getTransaction(any());
+
+		productService.findProductById(ID);
+		verify(transactionManager).getTransaction(argThat(definition -> !definition.isReadOnly()));
+	}
+
+	private void assertEvicted() {
+		cached();
+		assertThat(loads).hasValue(2);
+	}
+
+	private ProductDto cached() {
+		return cache.get(ID, id -> {
+			loads.incrementAndGet();
+			return ProductDto.from(product());
+		});
+	}
+
+	private static Product product() {
+		Product p = new Product("Oat Milk", "HealthyLife", "l", new BigDecimal("2.49"), "https://example.com/7", true, false);
+		ReflectionTestUtils.setField(p, "id", ID);
+		return p;
+	}
+
+}
@@ -0,0 +1,82 @@
+package Shelfy.Shelfy_V1.configuration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.autoconfigure.web.embedded.TomcatWebServerFactoryCustomizer;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.support.ResourcePropertySource;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// With the server settings of application.properties, getRemoteAddr (the key of the per-IP login limit)
+// is the client behind a trusted proxy, and X-Forwarded-For from anyone else is ignored.
+class ForwardedHeadersTests {
+
+	private WebServer server;
+
+	@AfterEach
+	void tearDown() {
+		if (server != null) server.stop();
+	}
+
+	@Test
+	void usesTheClientAddressFromATrustedProxy() throws Exception {
+		start(Map.of());
+
+		assertThat(remoteAddr("203.0.113.7")).isEqualTo("203.0.113.7");
+		assertThat(remoteAddr("198.51.100.2")).isEqualTo("198.51.100.2");
+	}
+
+	@Test
+	void ignoresForwardedHeadersFromUntrustedPeers() throws Exception {
+		start(Map.of("server.tomcat.remoteip.internal-proxies", "10\\.1\\.2\\.3"));
+
+		assertThat(remoteAddr("203.0.113.7")).isEqualTo("127.0.0.1");
+	}
+
+	private void start(Map<String, Object> overrides) throws IOException {
+		StandardEnvironment environment = new StandardEnvironment();
+		environment.getPropertySources().addFirst(new ResourcePropertySource("classpath:application.properties"));
+		environment.getPropertySources().addFirst(new MapPropertySource("test",
+				Map.<String, Object>of("PORT", "0", "server.address", "127.0.0.1")));
+		if (!overrides.isEmpty()) {
+			environment.getPropertySources().addFirst(
+					new MapPropertySource("overrides", overrides));
+		}
+		ServerProperties properties = Binder.get(environment).bind("server", ServerProperties.class).get();
+		TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory();
+		factory.setPort(0);
+		new TomcatWebServerFactoryCustomizer(environment, properties).customize(factory);
+		server = factory.getWebServer(context -> context.addServlet("remote-addr", new HttpServlet() {
+			@Override
+			protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+				response.getWriter().write(request.getRemoteAddr());
+			}
+		}).addMapping("/"));
+		server.start();
+	}
+
+	private String remoteAddr(String forwardedFor) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + "/"))
+				.header("X-Forwarded-For", forwardedFor)
+				.build();
+		return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString()).body();
+	}
+
+}
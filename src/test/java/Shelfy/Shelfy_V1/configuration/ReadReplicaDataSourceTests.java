@@ -0,0 +1,52 @@
+package Shelfy.Shelfy_V1.configuration;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadReplicaDataSourceTests {
+
+	private final DataSource primary = mock(DataSource.class);
+	private final DataSource replicaA = mock(DataSource.class);
+	private final DataSource replicaB = mock(DataSource.class);
+	private final Connection primaryConnection = mock(Connection.class);
+	private final Connection connectionA = mock(Connection.class);
+	private final Connection connectionB = mock(Connection.class);
+
+	@Test
+	void alternatesBetweenReplicas() throws SQLException {
+		when(replicaA.getConnection()).thenReturn(connectionA);
+		when(replicaB.getConnection()).thenReturn(connectionB);
+		ReadReplicaDataSource dataSource = dataSource();
+
+		assertThat(List.of(dataSource.getConnection(), dataSource.getConnection(), dataSource.getConnection()))
+				.containsExactly(connectionA, connectionB, connectionA);
+	}
+
+	@Test
+	void skipsFailedReplicaAndFallsBackToPrimary() throws SQLException {
+		when(replicaA.getConnection()).thenThrow(new SQLException("down"));
+		when(replicaB.getConnection()).thenReturn(connectionB).thenThrow(new SQLException("down"));
+		when(primary.getConnection()).thenReturn(primaryConnection);
+		ReadReplicaDataSource dataSource = dataSource();
+
+		assertThat(dataSource.getConnection()).isSameAs(connectionB);
+		assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+		// Both replicas are now marked down, so the primary is used without retrying them
+		assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+	}
+
+	private ReadReplicaDataSource dataSource() {
+		return new ReadReplicaDataSource(primary, List.of(replicaA, replicaB),
+				ReadReplicaDataSource.Selection.ROUND_ROBIN, Duration.ofMinutes(1));
+	}
+
+}
@@ -0,0 +1,138 @@
+package Shelfy.Shelfy_V1.configuration;
+
+import Shelfy.Shelfy_V1.filters.JwtAuthenticationFilter;
+import Shelfy.Shelfy_V1.services.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Access rules of the actuator endpoints, checked against stand-ins on the same paths.
+@SpringJUnitWebConfig(SecurityConfigTests.Config.class)
+@TestPropertySource(properties = {
+		"security.metrics.scrape.username=prometheus",
+		"security.metrics.scrape.password={noop}scrape-secret"
+})
+class SecurityConfigTests {
+
+	private static final JwtService JWT = new JwtService("test-secret-key-0123456789abcdef0123456789", "shelfy",
+			Duration.ofMinutes(5), Duration.ofDays(1), new SimpleMeterRegistry());
+
+	@Configuration
+	@EnableWebMvc
+	@Import({SecurityConfig.class, CorsConfig.class})
+	static class Config {
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+
+		@Bean
+		JwtAuthenticationFilter jwtAuthenticationFilter() {
+			return new JwtAuthenticationFilter(JWT, 100);
+		}
+
+		@Bean
+		Endpoints endpoints() {
+			return new Endpoints();
+		}
+	}
+
+	@RestController
+	static class Endpoints {
+
+		@GetMapping("/actuator/prometheus")
+		String prometheus() {
+			return "metrics";
+		}
+
+		@GetMapping("/actuator/slowqueries")
+		String slowQueries() {
+			return "report";
+		}
+
+		@DeleteMapping("/actuator/slowqueries")
+		@ResponseStatus(HttpStatus.NO_CONTENT)
+		void resetSlowQueries() {
+		}
+	}
+
+	@Autowired
+	private WebApplicationContext context;
+	private MockMvc mvc;
+
+	@BeforeEach
+	void setUp() {
+		mvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+	}
+
+	@Test
+	void scrapesNeedTheScrapeCredential() throws Exception {
+		mvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isUnauthorized())
+				.andExpect(header().exists("WWW-Authenticate"));
+		mvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", "wrong")))
+				.andExpect(status().isUnauthorized());
+		mvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", "scrape-secret")))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void scrapesDoNotAcceptUserTokens() throws Exception {
+		mvc.perform(get("/actuator/prometheus").header("Authorization", bearer("ROLE_ADMIN")))
+				.andExpect(status().isUnauthorized());
+	}
+
+	// The report shows SQL text, so reading or clearing it takes an admin token.
+	@Test
+	void slowQueryReportIsAdminOnly() throws Exception {
+		mvc.perform(get("/actuator/slowqueries")).andExpect(status().isUnauthorized());
+		mvc.perform(get("/actuator/slowqueries").header("Authorization", bearer("ROLE_USER")))
+				.andExpect(status().isForbidden());
+		mvc.perform(get("/actuator/slowqueries").header("Authorization", bearer("ROLE_ADMIN")))
+				.andExpect(status().isOk());
+
+		mvc.perform(delete("/actuator/slowqueries")).andExpect(status().isUnauthorized());
+		mvc.perform(delete("/actuator/slowqueries").header("Authorization", bearer("ROLE_USER")))
+				.andExpect(status().isForbidden());
+		mvc.perform(delete("/actuator/slowqueries").header("Authorization", bearer("ROLE_ADMIN")))
+				.andExpect(status().isNoContent());
+	}
+
+	@Test
+	void slowQueryReportDoesNotAcceptTheScrapeCredential() throws Exception {
+		mvc.perform(get("/actuator/slowqueries").with(httpBasic("prometheus", "scrape-secret")))
+				.andExpect(status().isUnauthorized());
+	}
+
+	static String bearer(String... roles) {
+		return "Bearer " + JWT.generateAccessToken("alice", List.of(roles));
+	}
+
+}
@@ -0,0 +1,109 @@
+package Shelfy.Shelfy_V1.controllers;
+
+import Shelfy.Shelfy_V1.DTOs.ProductDto;
+import Shelfy.Shelfy_V1.cache.CatalogVersion;
+import Shelfy.Shelfy_V1.services.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Catalog GETs, brands included, revalidate against the catalog version: 200, then 304 while it is
+// unchanged, then 200 again once it moved.
+class ProductControllerConditionalTests {
+
+	private final AtomicLong version = new AtomicLong(1);
+	// Version the read's database has reached, when it lags behind
+	private final AtomicLong served = new AtomicLong(Long.MAX_VALUE);
+	private final ProductService productService = mock(ProductService.class);
+	private MockMvc mvc;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		when(productService.getCatalogStamp()).thenAnswer(call -> CatalogVersion.Stamp.of(version.get()));
+		when(productService.readCatalog(any(), any())).thenAnswer(call -> {
+			CatalogVersion.Stamp stamp = call.getArgument(0);
+			Object body = ((Supplier<Object>) call.getArgument(1)).get();
+			return new CatalogVersion.Read<>(served.get() < stamp.version() ? CatalogVersion.Stamp.of(served.get()) : stamp,
+					body);
+		});
+		when(productService.findProductById(1L)).thenReturn(
+				new ProductDto(1L, "Milk", "Acme", "1 l", new BigDecimal("1.29"), "milk.png", false, true));
+		when(productService.getAllUniqueBrands()).thenReturn(List.of("Acme"));
+		mvc = MockMvcBuilders.standaloneSetup(new ProductController(productService, new ObjectMapper())).build();
+	}
+
+	@Test
+	void revalidatesUntilTheVersionMoves() throws Exception {
+		String etag = fetch("/products/1", null);
+		assertNotModified("/products/1", etag);
+		verify(productService, times(1)).findProductById(1L);
+
+		version.incrementAndGet();
+
+		fetch("/products/1", etag);
+		verify(productService, times(2)).findProductById(1L);
+	}
+
+	@Test
+	void validatesBrandsWithTheCatalogVersion() throws Exception {
+		String etag = fetch("/products/brands", null);
+		assertNotModified("/products/brands", etag);
+		assertNotModified("/products/brands/facets", etag);
+
+		version.incrementAndGet();
+
+		fetch("/products/brands", etag);
+		verify(productService, times(2)).getAllUniqueBrands();
+	}
+
+	// A read served by a replica that is behind carries the replica's version, so the client revalidates
+	// instead of keeping the older body under the current version.
+	@Test
+	void labelsAReadFromALaggingReplicaWithItsVersion() throws Exception {
+		version.set(5);
+		served.set(4);
+		String etag = fetch("/products/1", null);
+		assertThat(etag).isEqualTo("W/\"catalog-4\"");
+
+		served.set(Long.MAX_VALUE);
+		String current = fetch("/products/1", etag);
+		assertThat(current).isEqualTo("W/\"catalog-5\"");
+		assertNotModified("/products/1", current);
+	}
+
+	private String fetch(String path, String ifNoneMatch) throws Exception {
+		var request = get(path);
+		if (ifNoneMatch != null) {
+			request.header("If-None-Match", ifNoneMatch);
+		}
+		return mvc.perform(request)
+				.andExpect(status().isOk())
+				.andExpect(header().exists("ETag"))
+				.andExpect(header().doesNotExist("Last-Modified"))
+				.andReturn().getResponse().getHeader("ETag");
+	}
+
+	private void assertNotModified(String path, String etag) throws Exception {
+		mvc.perform(get(path).header("If-None-Match", etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().stringValues("ETag", etag));
+	}
+}
@@ -0,0 +1,164 @@
+package Shelfy.Shelfy_V1.controllers;
+
+import Shelfy.Shelfy_V1.DTOs.ProductDto;
+import Shelfy.Shelfy_V1.cache.CatalogVersion;
+import Shelfy.Shelfy_V1.cache.ProductCache;
+import Shelfy.Shelfy_V1.events.ProductChangeLog;
+import Shelfy.Shelfy_V1.repositories.ProductRepository;
+import Shelfy.Shelfy_V1.search.BrandDictionary;
+import Shelfy.Shelfy_V1.search.ProductFilter;
+import Shelfy.Shelfy_V1.search.ProductSearchIndex;
+import Shelfy.Shelfy_V1.search.ProductSuggester;
+import Shelfy.Shelfy_V1.services.ProductMetrics;
+import Shelfy.Shelfy_V1.services.ProductService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.SortHandlerMethodArgumentResolver;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// /products/search/stream writes rows as the database cursor yields them, as a JSON array or as NDJSON,
+// and stops reading (closing the cursor) when the client goes away.
+class ProductControllerStreamTests {
+
+	private static final List<ProductDto> ROWS = List.of(
+			new ProductDto(1L, "Milk", "Acme", "1 l", new BigDecimal("1.29"), "milk.png", false, true),
+			new ProductDto(2L, "Oat Milk", "Acme", "1 l", new BigDecimal("2.49"), "oat.png", true, true),
+			new ProductDto(3L, "Milk \"Extra\"", "Dairy", "1 l", new BigDecimal("1.59"), "extra.png", false, false));
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final ProductRepository repository = mock(ProductRepository.class);
+	private ProductController controller;
+	private MockMvc mvc;
+
+	@BeforeEach
+	void setUp() {
+		ProductService productService = new ProductService(repository, mock(ProductSearchIndex.class),
+				mock(BrandDictionary.class), mock(ProductSuggester.class), mock(ProductCache.class),
+				mock(CatalogVersion.class), new ProductMetrics(new SimpleMeterRegistry()), mock(ProductChangeLog.class),
+				mock(EntityManager.class), mock(PlatformTransactionManager.class), mock(Validator.class), 500);
+		when(repository.streamDtos(eq(ProductFilter.of("milk", null, null, null, null)), any()))
+				.thenAnswer(call -> ROWS.stream());
+		controller = new ProductController(productService, objectMapper);
+		mvc = MockMvcBuilders.standaloneSetup(controller)
+				.setCustomArgumentResolvers(new SortHandlerMethodArgumentResolver())
+				.build();
+	}
+
+	@Test
+	void streamsAJsonArray() throws Exception {
+		String body = stream("/products/search/stream?name=milk", MediaType.APPLICATION_JSON);
+
+		assertThat(objectMapper.readValue(body, new TypeReference<List<ProductDto>>() {})).isEqualTo(ROWS);
+	}
+
+	@Test
+	void streamsOneObjectPerLine() throws Exception {
+		String body = stream("/products/search/stream?name=milk&format=ndjson", MediaType.APPLICATION_NDJSON);
+
+		assertThat(body).endsWith("\n");
+		List<ProductDto> rows = body.lines().map(this::read).toList();
+		assertThat(rows).isEqualTo(ROWS);
+	}
+
+	@Test
+	void streamsNoMatchesAsAnEmptyBody() throws Exception {
+		when(repository.streamDtos(eq(ProductFilter.of("none", null, null, null, null)), any()))
+				.thenAnswer(call -> Stream.empty());
+
+		assertThat(stream("/products/search/stream?name=none", MediaType.APPLICATION_JSON)).isEqualTo("[]");
+		assertThat(stream("/products/search/stream?name=none&format=ndjson", MediaType.APPLICATION_NDJSON)).isEmpty();
+	}
+
+	// A failed write (broken pipe) ends the response: no further rows are read, and the cursor is closed.
+	@Test
+	void stopsReadingWhenTheClientDisconnects() throws Exception {
+		for (String format : List.of("json", "ndjson")) {
+			AtomicInteger read = new AtomicInteger();
+			AtomicBoolean closed = new AtomicBoolean();
+			when(repository.streamDtos(eq(ProductFilter.of("milk", null, null, null, null)), any()))
+					.thenAnswer(call -> IntStream.range(0, 100_000)
+							.mapToObj(i -> new ProductDto((long) i, "Milk " + i, "Acme", "1 l", BigDecimal.ONE, "m.png", false, true))
+							.peek(row -> read.incrementAndGet())
+							.onClose(() -> closed.set(true)));
+			StreamingResponseBody body = controller.streamProductsByName("milk", null, null, null, null, format,
+					Sort.unsorted()).getBody();
+
+			assertThatThrownBy(() -> body.writeTo(new DisconnectingStream(4096)))
+					.isInstanceOf(UncheckedIOException.class)
+					.hasRootCauseMessage("Broken pipe");
+			assertThat(read.get()).as(format).isLessThan(1_000);
+			assertThat(closed).as(format).isTrue();
+		}
+	}
+
+	private String stream(String url, MediaType type) throws Exception {
+		MvcResult started = mvc.perform(get(url)).andExpect(request().asyncStarted()).andReturn();
+		return mvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(type))
+				.andReturn().getResponse().getContentAsString();
+	}
+
+	private ProductDto read(String json) {
+		try {
+			return objectMapper.readValue(json, ProductDto.class);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	// Accepts a number of bytes, then fails like a socket whose peer went away.
+	private static final class DisconnectingStream extends OutputStream {
+
+		private int remaining;
+
+		DisconnectingStream(int capacity) {
+			this.remaining = capacity;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[]{(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (len > remaining) throw new IOException("Broken pipe");
+			remaining -= len;
+		}
+	}
+
+}
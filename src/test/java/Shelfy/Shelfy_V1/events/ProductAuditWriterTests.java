@@ -0,0 +1,156 @@
+package Shelfy.Shelfy_V1.events;
+
+import Shelfy.Shelfy_V1.cache.CatalogVersion;
+import Shelfy.Shelfy_V1.entities.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+// The audit trail must not lose changes: a backlog pushes back on writers and failed batches are retried.
+class ProductAuditWriterTests {
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private ProductAuditWriter writer;
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		writer.shutdown();
+	}
+
+	@Test
+	void retriesBatchesWhileTheDatabaseIsUnavailable() throws InterruptedException {
+		when(insert())
+				.thenThrow(new DataAccessResourceFailureException("down"))
+				.thenThrow(new DataAccessResourceFailureException("down"))
+				.thenReturn(new int[0][]);
+		writer = writer(10, 10, Duration.ofSeconds(1));
+
+		writer.onProductChange(change(1));
+
+		awaitCount("shelfy.audit.written", 1);
+		assertThat(count("shelfy.audit.retried")).isEqualTo(2);
+		assertThat(count("shelfy.audit.failed")).isZero();
+	}
+
+	@Test
+	void storesARejectedBatchRowByRow() throws InterruptedException {
+		when(insert()).thenAnswer(call -> {
+			Collection<ProductChangeEvent> batch = call.getArgument(1);
+			if (batch.stream().anyMatch(event -> event.productId() == 2)) {
+				throw new DataIntegrityViolationException("rejected");
+			}
+			return new int[0][];
+		});
+		writer = writer(10, 3, Duration.ofSeconds(1));
+
+		writer.onProductChange(change(1));
+		writer.onProductChange(change(2));
+		writer.onProductChange(change(3));
+
+		awaitCount("shelfy.audit.failed", 1);
+		assertThat(count("shelfy.audit.written")).isEqualTo(2);
+	}
+
+	// Changes committed while the writer is behind end up in product_audit once it catches up; nothing is
+	// written from the after-commit callback, where it would join the finished transaction and be lost.
+	@Test
+	void storesChangesCommittedWhileTheQueueIsFull() throws InterruptedException {
+		DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:audit;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+		JdbcTemplate database = spy(new JdbcTemplate(dataSource));
+		database.execute("CREATE TABLE product_audit (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,"
+				+ " product_id BIGINT NOT NULL, change_type VARCHAR(16) NOT NULL,"
+				+ " changed_at TIMESTAMP(6) WITH TIME ZONE NOT NULL, changed_by VARCHAR(100),"
+				+ " before_state JSONB, after_state JSONB)");
+		CountDownLatch writerBusy = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(call -> {
+			if (Thread.currentThread().getName().equals("product-audit-writer")) {
+				writerBusy.countDown();
+				release.await(5, TimeUnit.SECONDS);
+			}
+			return call.callRealMethod();
+		}).when(database).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+		writer = new ProductAuditWriter(database, new ObjectMapper(), registry, 1, 10, Duration.ZERO,
+				Duration.ofMillis(20), Duration.ofMillis(10));
+		var beans = new StaticListableBeanFactory();
+		beans.addBean("productAuditWriter", writer);
+		var changeLog = new ProductChangeLog(beans.getBeanProvider(ProductChangeListener.class), mock(CatalogVersion.class));
+		var transactions = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+		transactions.executeWithoutResult(status -> changeLog.created(product(1L)));
+		assertThat(writerBusy.await(5, TimeUnit.SECONDS)).isTrue();
+		for (long id = 2; id <= 4; id++) {
+			long productId = id;
+			transactions.executeWithoutResult(status -> changeLog.created(product(productId)));
+		}
+		assertThat(count("shelfy.audit.overflow")).isEqualTo(2);
+
+		release.countDown();
+		awaitCount("shelfy.audit.written", 4);
+		assertThat(database.queryForList("SELECT product_id FROM product_audit ORDER BY id", Long.class))
+				.containsExactly(1L, 2L, 3L, 4L);
+	}
+
+	@SuppressWarnings("unchecked")
+	private int[][] insert() {
+		return jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(),
+				any(ParameterizedPreparedStatementSetter.class));
+	}
+
+	private ProductAuditWriter writer(int queueCapacity, int batchSize, Duration flushInterval) {
+		return new ProductAuditWriter(jdbcTemplate, new ObjectMapper(), registry, queueCapacity, batchSize,
+				flushInterval, Duration.ofMillis(20), Duration.ofMillis(10));
+	}
+
+	private static Product product(long id) {
+		Product p = new Product("Oat Milk " + id, "OatCo", "1 l", new BigDecimal("1.99"), "https://example.com/" + id, true, false);
+		ReflectionTestUtils.setField(p, "id", id);
+		return p;
+	}
+
+	private static ProductChangeEvent change(long productId) {
+		return new ProductChangeEvent(productId, 0, ProductChangeEvent.Type.DELETED, productId, null, null,
+				Instant.now(), "admin");
+	}
+
+	private double count(String counter) {
+		return registry.counter(counter).count();
+	}
+
+	private void awaitCount(String counter, double expected) throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			if (count(counter) >= expected) break;
+			Thread.sleep(20);
+		}
+		assertThat(count(counter)).isEqualTo(expected);
+	}
+}
@@ -0,0 +1,156 @@
+package Shelfy.Shelfy_V1.events;
+
+import Shelfy.Shelfy_V1.DTOs.ProductDto;
+import Shelfy.Shelfy_V1.cache.CatalogVersion;
+import Shelfy.Shelfy_V1.entities.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductChangeLogTests {
+
+	private final List<ProductChangeEvent> received = new ArrayList<>();
+	private final CatalogVersion catalogVersion = mock(CatalogVersion.class);
+	private ProductChangeLog changeLog;
+
+	@BeforeEach
+	void setUp() {
+		var beans = new StaticListableBeanFactory();
+		beans.addBean("failing", (ProductChangeListener) event -> {
+			throw new IllegalStateException("boom");
+		});
+		beans.addBean("recording", (ProductChangeListener) received::add);
+		changeLog = new ProductChangeLog(beans.getBeanProvider(ProductChangeListener.class), catalogVersion);
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		TransactionSynchronizationManager.setActualTransactionActive(false);
+	}
+
+	@Test
+	void deliversChangesInSequenceWithBeforeAndAfterState() {
+		Product product = product(7L, "Oat Milk", "HealthyLife");
+		changeLog.created(product);
+		ProductDto before = ProductDto.from(product);
+		product.setBrand("OatCo");
+		changeLog.updated(before, product);
+		changeLog.deleted(product);
+
+		assertThat(received).extracting(ProductChangeEvent::sequence).containsExactly(1L, 2L, 3L);
+		assertThat(received).extracting(ProductChangeEvent::type).containsExactly(
+				ProductChangeEvent.Type.CREATED, ProductChangeEvent.Type.UPDATED, ProductChangeEvent.Type.DELETED);
+		assertThat(received.get(0).before()).isNull();
+		assertThat(received.get(1).before().brand()).isEqualTo("HealthyLife");
+		assertThat(received.get(1).after().brand()).isEqualTo("OatCo");
+		assertThat(received.get(2).after()).isNull();
+		assertThat(received).extracting(ProductChangeEvent::productId).containsOnly(7L);
+	}
+
+	// A transaction claims one catalog version for all of its changes; it is reported back once they are
+	// delivered, or given up when the transaction rolls back.
+	@Test
+	void holdsChangesBackUntilCommitAndDropsThemOnRollback() {
+		when(catalogVersion.claim()).thenReturn(5L, 6L);
+		begin();
+		changeLog.created(product(1L, "Salted Peanuts", "SnackKing"));
+		changeLog.created(product(2L, "Chocolate Milk", "SnackKing"));
+		assertThat(received).isEmpty();
+		complete(TransactionSynchronization.STATUS_COMMITTED);
+		assertThat(received).extracting(ProductChangeEvent::catalogVersion).containsExactly(5L, 5L);
+		verify(catalogVersion).committed(5L);
+
+		begin();
+		changeLog.created(product(3L, "Mint Tea", "HealthyLife"));
+		complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+		assertThat(received).hasSize(2);
+		verify(catalogVersion).abandoned(6L);
+		verify(catalogVersion, never()).committed(6L);
+		verify(catalogVersion, times(2)).claim();
+	}
+
+	// A listener pushing back in afterProductChange must not hold up delivery of other threads' changes.
+	@Test
+	void deliversOtherChangesWhileAListenerPushesBack() throws InterruptedException {
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		var beans = new StaticListableBeanFactory();
+		beans.addBean("recording", (ProductChangeListener) received::add);
+		beans.addBean("slow", new ProductChangeListener() {
+			@Override
+			public void onProductChange(ProductChangeEvent event) {
+			}
+
+			@Override
+			public void afterProductChange(ProductChangeEvent event) {
+				if (event.sequence() == 1) {
+					blocked.countDown();
+					await(release, 10);
+				}
+			}
+		});
+		changeLog = new ProductChangeLog(beans.getBeanProvider(ProductChangeListener.class), catalogVersion);
+
+		Thread first = new Thread(() -> changeLog.created(product(1L, "Salted Peanuts", "SnackKing")));
+		first.start();
+		assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+		Thread second = new Thread(() -> changeLog.created(product(2L, "Chocolate Milk", "SnackKing")));
+		second.start();
+		second.join(TimeUnit.SECONDS.toMillis(2));
+
+		assertThat(second.isAlive()).isFalse();
+		assertThat(received).extracting(ProductChangeEvent::sequence).containsExactly(1L, 2L);
+		release.countDown();
+		first.join();
+	}
+
+	private static void begin() {
+		TransactionSynchronizationManager.initSynchronization();
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+	}
+
+	private static void complete(int status) {
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		if (status == TransactionSynchronization.STATUS_COMMITTED) {
+			synchronizations.forEach(TransactionSynchronization::afterCommit);
+		}
+		synchronizations.forEach(s -> s.afterCompletion(status));
+		TransactionSynchronizationManager.clearSynchronization();
+		TransactionSynchronizationManager.setActualTransactionActive(false);
+	}
+
+	private static void await(CountDownLatch latch, long seconds) {
+		try {
+			latch.await(seconds, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static Product product(Long id, String name, String brand) {
+		Product p = new Product(name, brand, "piece", new BigDecimal("1.99"), "https://example.com/" + id, true, false);
+		ReflectionTestUtils.setField(p, "id", id);
+		return p;
+	}
+
+}
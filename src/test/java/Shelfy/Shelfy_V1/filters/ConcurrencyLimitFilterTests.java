@@ -0,0 +1,178 @@
+package Shelfy.Shelfy_V1.filters;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// With virtual threads every request gets a thread of its own, so ConcurrencyLimitFilter is the only thing
+// bounding how many of them run at once. Requests here run on virtual threads, like Tomcat's with
+// spring.threads.virtual.enabled.
+class ConcurrencyLimitFilterTests {
+
+	private final ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor();
+	private final AtomicInteger running = new AtomicInteger();
+	private final AtomicInteger peak = new AtomicInteger();
+
+	@AfterEach
+	void tearDown() {
+		requests.shutdownNow();
+	}
+
+	@Test
+	void runsAtMostTheLimitAtOnce() throws Exception {
+		ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(4, Duration.ofSeconds(30));
+		FilterChain chain = (request, response) -> {
+			enter();
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				running.decrementAndGet();
+			}
+		};
+
+		List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			responses.add(requests.submit(() -> send(filter, "/api/products/search", chain)));
+		}
+
+		for (Future<MockHttpServletResponse> response : responses) {
+			assertThat(response.get(30, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+		}
+		assertThat(peak.get()).isEqualTo(4);
+	}
+
+	@Test
+	void turnsAwayRequestsThatWaitLongerThanAllowed() throws Exception {
+		ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(2, Duration.ofMillis(100));
+		CountDownLatch entered = new CountDownLatch(2);
+		CountDownLatch release = new CountDownLatch(1);
+		FilterChain blocking = (request, response) -> {
+			entered.countDown();
+			await(release);
+		};
+		List<Future<MockHttpServletResponse>> holding = List.of(
+				requests.submit(() -> send(filter, "/api/products/search", blocking)),
+				requests.submit(() -> send(filter, "/api/products/search", blocking)));
+		assertThat(entered.await(10, TimeUnit.SECONDS)).isTrue();
+
+		List<Future<MockHttpServletResponse>> rejected = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			rejected.add(requests.submit(() -> send(filter, "/api/products/search", new MockFilterChain())));
+		}
+		for (Future<MockHttpServletResponse> response : rejected) {
+			MockHttpServletResponse r = response.get(10, TimeUnit.SECONDS);
+			assertThat(r.getStatus()).isEqualTo(503);
+			assertThat(r.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+		}
+
+		release.countDown();
+		for (Future<MockHttpServletResponse> response : holding) {
+			assertThat(response.get(10, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+		}
+		// Both permits are back
+		assertThat(requests.submit(() -> send(filter, "/api/products/search", new MockFilterChain())).get().getStatus()).isEqualTo(200);
+		assertThat(requests.submit(() -> send(filter, "/api/products/search", new MockFilterChain())).get().getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	void givesThePermitBackWhenTheRequestFails() throws Exception {
+		ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ofMillis(100));
+		FilterChain failing = (request, response) -> {
+			throw new ServletException("boom");
+		};
+
+		assertThatThrownBy(() -> send(filter, "/api/products/search", failing)).isInstanceOf(ServletException.class);
+		assertThat(send(filter, "/api/products/search", new MockFilterChain()).getStatus()).isEqualTo(200);
+	}
+
+	// A request whose thread is interrupted, e.g. on shutdown, is turned away instead of waiting for a permit,
+	// and keeps its interrupt status
+	@Test
+	void turnsAwayAnInterruptedRequest() throws Exception {
+		ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ofSeconds(30));
+
+		Future<Boolean> interrupted = requests.submit(() -> {
+			Thread.currentThread().interrupt();
+			assertThat(send(filter, "/api/products/search", new MockFilterChain()).getStatus()).isEqualTo(503);
+			return Thread.interrupted();
+		});
+
+		assertThat(interrupted.get(10, TimeUnit.SECONDS)).isTrue();
+		// The permit was never taken
+		assertThat(send(filter, "/api/products/search", new MockFilterChain()).getStatus()).isEqualTo(200);
+	}
+
+	// Health probes have to answer while every permit is taken, and a limit of 0 turns the filter off
+	@Test
+	void letsProbesAndUnlimitedRequestsThrough() throws Exception {
+		ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ofMillis(100));
+		CountDownLatch entered = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Future<MockHttpServletResponse> holding = requests.submit(() -> send(filter, "/api/products/search", (request, response) -> {
+			entered.countDown();
+			await(release);
+		}));
+		assertThat(entered.await(10, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(send(filter, "/api/actuator/health/readiness", new MockFilterChain()).getStatus()).isEqualTo(200);
+		assertThat(send(filter, "/api/products/search", new MockFilterChain()).getStatus()).isEqualTo(503);
+		release.countDown();
+		holding.get(10, TimeUnit.SECONDS);
+
+		ConcurrencyLimitFilter unlimited = new ConcurrencyLimitFilter(0, Duration.ofMillis(100));
+		CountDownLatch all = new CountDownLatch(100);
+		List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			responses.add(requests.submit(() -> send(unlimited, "/api/products/search", (request, response) -> {
+				all.countDown();
+				await(all);
+			})));
+		}
+		for (Future<MockHttpServletResponse> response : responses) {
+			assertThat(response.get(10, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+		}
+	}
+
+	private void enter() {
+		int now = running.incrementAndGet();
+		peak.accumulateAndGet(now, Math::max);
+	}
+
+	private static MockHttpServletResponse send(ConcurrencyLimitFilter filter, String uri, FilterChain chain)
+			throws ServletException, IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, chain);
+		return response;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
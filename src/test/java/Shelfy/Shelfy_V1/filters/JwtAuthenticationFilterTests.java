@@ -0,0 +1,101 @@
+package Shelfy.Shelfy_V1.filters;
+
+import Shelfy.Shelfy_V1.services.JwtService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class JwtAuthenticationFilterTests {
+
+	private static final String SECRET = "test-secret-key-0123456789abcdef0123456789";
+	private static final String ISSUER = "shelfy";
+
+	private JwtService jwtService;
+	private JwtAuthenticationFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		jwtService = spy(new JwtService(SECRET, ISSUER, Duration.ofSeconds(2), Duration.ofDays(1), new SimpleMeterRegistry()));
+		filter = new JwtAuthenticationFilter(jwtService, 100);
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void servesRepeatedTokenFromCache() throws Exception {
+		String token = jwtService.generateAccessToken("alice", List.of("ROLE_ADMIN"));
+
+		assertThat(authenticate(token).getName()).isEqualTo("alice");
+		assertThat(authenticate(token).getName()).isEqualTo("alice");
+		verify(jwtService, times(1)).parse(token);
+	}
+
+	@Test
+	void stopsAuthenticatingCachedTokenAfterExpiry() throws Exception {
+		String token = jwtService.generateAccessToken("alice", List.of("ROLE_ADMIN"));
+		Instant expiresAt = jwtService.parse(token).getPayload().getExpiration().toInstant();
+		assertThat(authenticate(token)).isNotNull();
+
+		Thread.sleep(Math.max(0, Duration.between(Instant.now(), expiresAt).toMillis()) + 200);
+
+		assertThat(authenticate(token)).isNull();
+	}
+
+	@Test
+	void neverServesTamperedSignatureFromCache() throws Exception {
+		String token = jwtService.generateAccessToken("alice", List.of("ROLE_ADMIN"));
+		assertThat(authenticate(token)).isNotNull();
+
+		// Change a character in the middle of the signature; the last one may only carry padding bits
+		int at = token.length() - 10;
+		String tampered = token.substring(0, at) + (token.charAt(at) == 'A' ? 'B' : 'A') + token.substring(at + 1);
+
+		assertThat(authenticate(tampered)).isNull();
+		assertThat(authenticate(token)).isNotNull();
+	}
+
+	@Test
+	void doesNotCacheTokensWithoutExpiry() throws Exception {
+		String token = Jwts.builder()
+				.subject("alice")
+				.issuer(ISSUER)
+				.claim("roles", List.of("ROLE_ADMIN"))
+				.signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), Jwts.SIG.HS256)
+				.compact();
+
+		assertThat(authenticate(token).getName()).isEqualTo("alice");
+		assertThat(authenticate(token).getName()).isEqualTo("alice");
+		verify(jwtService, times(2)).parse(token);
+	}
+
+	// Run a request carrying the token through the filter and return the resulting authentication.
+	private Authentication authenticate(String token) throws Exception {
+		SecurityContextHolder.clearContext();
+		var request = new MockHttpServletRequest("GET", "/products/1");
+		request.addHeader("Authorization", "Bearer " + token);
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+		return SecurityContextHolder.getContext().getAuthentication();
+	}
+
+}
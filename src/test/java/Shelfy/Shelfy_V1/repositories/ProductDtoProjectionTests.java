@@ -0,0 +1,74 @@
+package Shelfy.Shelfy_V1.repositories;
+
+import Shelfy.Shelfy_V1.DTOs.ProductDto;
+import Shelfy.Shelfy_V1.entities.Product;
+import Shelfy.Shelfy_V1.search.ProductFilter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The search and lookup queries select ProductDto directly instead of loading entities. Each of them must
+// return exactly what ProductDto.from makes of the stored entity, field for field.
+// Runs on an in-memory H2 database with the schema generated from the entities; the native full-text
+// search is PostgreSQL-only and left to ProductSearchIndexPlanTests.
+@DataJpaTest
+@TestPropertySource(properties = {
+		"spring.flyway.enabled=false",
+		"spring.sql.init.mode=never",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"})
+class ProductDtoProjectionTests {
+
+	@Autowired
+	private ProductRepository productRepository;
+	@Autowired
+	private EntityManager entityManager;
+
+	private List<ProductDto> stored;
+
+	@BeforeEach
+	void setUp() {
+		// Every combination of the two flags, prices with and without cents, names with quotes and accents
+		productRepository.saveAll(List.of(
+				new Product("Milk", "Acme", "1 l", new BigDecimal("1.29"), "https://example.com/milk.png", true, false),
+				new Product("Oat \"Barista\" Milk", "Acme", "1 l", new BigDecimal("2.00"), "https://example.com/oat.png", false, true),
+				new Product("Crème fraîche", "Laiterie", "200 g", new BigDecimal("0.99"), "https://example.com/creme.png", true, true),
+				new Product("Butter", "Dairy", "250 g", new BigDecimal("3.50"), "https://example.com/butter.png", false, false)));
+		entityManager.flush();
+		entityManager.clear();
+		stored = productRepository.findAll(Sort.by("id")).stream().map(ProductDto::from).toList();
+		entityManager.clear();
+	}
+
+	@Test
+	void findDtoByIdMatchesTheEntity() {
+		for (ProductDto expected : stored) {
+			assertThat(productRepository.findDtoById(expected.id())).contains(expected);
+		}
+		assertThat(productRepository.findDtoById(-1L)).isEmpty();
+	}
+
+	@Test
+	void searchDtosMatchesTheEntities() {
+		assertThat(productRepository.searchDtos(ProductFilter.of(null, null, null, null, null), Sort.by("id")))
+				.isEqualTo(stored);
+	}
+
+	@Test
+	void streamDtosMatchesTheEntities() {
+		try (Stream<ProductDto> rows = productRepository.streamDtos(ProductFilter.of(null, null, null, null, null), Sort.by("id"))) {
+			assertThat(rows.toList()).isEqualTo(stored);
+		}
+	}
+
+}
@@ -0,0 +1,187 @@
+package Shelfy.Shelfy_V1.repositories;
+
+import Shelfy.Shelfy_V1.configuration.StatementInspectionConfig;
+import Shelfy.Shelfy_V1.search.FullTextQuery;
+import Shelfy.Shelfy_V1.search.ProductFilter;
+import Shelfy.Shelfy_V1.sql.SlowQueryReport;
+import Shelfy.Shelfy_V1.sql.StatementRecorder;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs the product searches through the repository against a real PostgreSQL, captures the statements
+// Hibernate sends, with their bind values, through the same proxy as StatementRecorder, and checks with
+// EXPLAIN that each one is answered by its search index.
+// Runs against -Dshelfy.test.db-url (plus db-user, db-password) when set, otherwise in a Testcontainers
+// database, and is skipped without either. The products table of that database is truncated and reseeded.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({StatementInspectionConfig.class, ProductSearchIndexPlanTests.Recording.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIf("databaseAvailable")
+class ProductSearchIndexPlanTests {
+
+	private static final String DB_URL = System.getProperty("shelfy.test.db-url");
+	private static PostgreSQLContainer<?> postgres;
+
+	static boolean databaseAvailable() {
+		return DB_URL != null || DockerClientFactory.instance().isDockerAvailable();
+	}
+
+	@DynamicPropertySource
+	static void database(DynamicPropertyRegistry registry) {
+		if (DB_URL != null) {
+			registry.add("spring.datasource.url", () -> DB_URL);
+			registry.add("spring.datasource.username", () -> System.getProperty("shelfy.test.db-user", "postgres"));
+			registry.add("spring.datasource.password", () -> System.getProperty("shelfy.test.db-password", ""));
+			return;
+		}
+		if (postgres == null) {
+			postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+			postgres.start();
+		}
+		registry.add("spring.datasource.url", postgres::getJdbcUrl);
+		registry.add("spring.datasource.username", postgres::getUsername);
+		registry.add("spring.datasource.password", postgres::getPassword);
+	}
+
+	// Keeps every statement with its bind calls, on top of what StatementRecorder does.
+	@TestConfiguration
+	static class Recording {
+
+		@Bean
+		CapturingRecorder statementRecorder() {
+			return new CapturingRecorder();
+		}
+	}
+
+	static class CapturingRecorder extends StatementRecorder {
+
+		final List<QueryInfo> statements = new CopyOnWriteArrayList<>();
+
+		CapturingRecorder() {
+			super(new SlowQueryReport(20, Duration.ofMinutes(5)), Duration.ofSeconds(1));
+		}
+
+		@Override
+		public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+			super.afterQuery(execInfo, queryInfoList);
+			statements.addAll(queryInfoList);
+		}
+	}
+
+	@Autowired
+	private ProductRepository productRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private DataSource dataSource;
+	@Autowired
+	private CapturingRecorder recorder;
+
+	@BeforeAll
+	void seed() {
+		jdbcTemplate.execute("TRUNCATE products");
+		jdbcTemplate.execute("""
+				INSERT INTO products (id, name, brand, unit, default_price, image_url, is_active, is_recommended)
+				SELECT i, 'Product ' || i, 'Brand ' || (i % 50), 'piece', (i % 1000) / 10.0, 'https://example.com/' || i, true, i % 100 = 0
+				FROM generate_series(1, 20000) AS i
+				""");
+		// Like autovacuum on a settled table: VACUUM also merges the GIN pending lists the bulk insert filled,
+		// which the planner would otherwise price above a sequential scan
+		jdbcTemplate.execute("VACUUM ANALYZE products");
+	}
+
+	@BeforeEach
+	void clearStatements() {
+		recorder.statements.clear();
+	}
+
+	@Test
+	void nameSearchUsesTrigramIndex() throws Exception {
+		productRepository.searchDtos(ProductFilter.of("duct 1234", null, null, null, null), Sort.unsorted());
+
+		assertThat(explainSearch()).contains("products_name_trgm_idx");
+	}
+
+	@Test
+	void brandAndPriceFilterUsesCompositeIndex() throws Exception {
+		productRepository.searchDtos(ProductFilter.of(null, List.of("Brand 7", "Brand 8"),
+				new BigDecimal("10.00"), new BigDecimal("12.00"), null), Sort.unsorted());
+
+		assertThat(explainSearch()).contains("products_brand_price_idx");
+	}
+
+	@Test
+	void fullTextSearchUsesVectorIndex() throws Exception {
+		productRepository.fullTextSearchDtos(FullTextQuery.prefixQuery("product 1234"),
+				ProductFilter.of(null, null, null, null, null), Sort.unsorted());
+
+		assertThat(explainSearch()).contains("products_search_vector_idx");
+	}
+
+	@Test
+	void recommendedFilterUsesPartialIndex() throws Exception {
+		productRepository.searchDtos(ProductFilter.of(null, null, null, null, true), Sort.unsorted());
+
+		assertThat(explainSearch()).contains("products_recommended_idx");
+	}
+
+	// EXPLAIN the one statement the search sent, with the values it was bound to.
+	private String explainSearch() throws SQLException, ReflectiveOperationException {
+		List<QueryInfo> searches = recorder.statements.stream()
+				.filter(q -> q.getQuery().contains("products"))
+				.toList();
+		assertThat(searches).hasSize(1);
+		QueryInfo search = searches.get(0);
+		try (Connection c = dataSource.getConnection();
+			 PreparedStatement ps = c.prepareStatement("EXPLAIN " + search.getQuery())) {
+			for (ParameterSetOperation bind : search.getParametersList().get(0)) {
+				try {
+					bind.getMethod().invoke(ps, bind.getArgs());
+				} catch (InvocationTargetException e) {
+					throw (SQLException) e.getCause();
+				}
+			}
+			StringBuilder plan = new StringBuilder();
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) plan.append(rs.getString(1)).append('\n');
+			}
+			return plan.toString();
+		}
+	}
+
+}
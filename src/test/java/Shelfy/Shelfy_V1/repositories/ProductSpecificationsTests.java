@@ -0,0 +1,118 @@
+package Shelfy.Shelfy_V1.repositories;
+
+import Shelfy.Shelfy_V1.DTOs.ProductDto;
+import Shelfy.Shelfy_V1.entities.Product;
+import Shelfy.Shelfy_V1.search.ProductFilter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// ProductSpecifications.matching turns only the filters that are set into predicates: an absent (null) filter
+// must not restrict the result, whichever others are set. Every combination of set and absent filters is run
+// through the Specification and the DTO search, and compared with the same filter applied in Java.
+// Runs on an in-memory H2 database with the schema generated from the entities.
+@DataJpaTest
+@TestPropertySource(properties = {
+		"spring.flyway.enabled=false",
+		"spring.sql.init.mode=never",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"})
+class ProductSpecificationsTests {
+
+	@Autowired
+	private ProductRepository productRepository;
+	@Autowired
+	private EntityManager entityManager;
+
+	private List<ProductDto> catalog;
+
+	@BeforeEach
+	void setUp() {
+		productRepository.saveAll(List.of(
+				product("Organic Milk", "Acme", "1.29", true),
+				product("Oat Milk", "Dairy", "2.49", false),
+				product("50% Off Milk", "Dairy", "1.50", true),
+				product("Milk_2", "Laiterie", "3.00", false),
+				product("Crème fraîche", "Laiterie", "0.99", true),
+				product("Salted Peanuts", "Acme", "4.10", false),
+				product("Free Sample", "Acme", "0.00", false)));
+		entityManager.flush();
+		entityManager.clear();
+		catalog = productRepository.findAll(Sort.by("id")).stream().map(ProductDto::from).toList();
+		entityManager.clear();
+	}
+
+	// All 32 combinations, each with two sets of values; the second includes a LIKE wildcard, false and 0
+	@Test
+	void appliesExactlyTheFiltersThatAreSet() {
+		List<ProductFilter> values = List.of(
+				new ProductFilter("MILK", List.of("Acme", "Dairy"), new BigDecimal("1.50"), new BigDecimal("3.00"), true),
+				new ProductFilter("%", List.of("Dairy", "Laiterie"), BigDecimal.ZERO, new BigDecimal("2.49"), false));
+		for (ProductFilter set : values) {
+			for (int mask = 0; mask < 32; mask++) {
+				ProductFilter filter = new ProductFilter(
+						(mask & 1) != 0 ? set.name() : null,
+						(mask & 2) != 0 ? set.brands() : null,
+						(mask & 4) != 0 ? set.priceMin() : null,
+						(mask & 8) != 0 ? set.priceMax() : null,
+						(mask & 16) != 0 ? set.recommended() : null);
+				List<ProductDto> expected = catalog.stream().filter(p -> matches(filter, p)).toList();
+
+				assertThat(specification(filter)).as(filter.toString()).isEqualTo(expected);
+				assertThat(productRepository.searchDtos(filter, Sort.by("id"))).as(filter.toString()).isEqualTo(expected);
+			}
+		}
+	}
+
+	@Test
+	void matchesEverythingWithoutFilters() {
+		assertThat(specification(ProductFilter.of(null, null, null, null, null))).isEqualTo(catalog);
+	}
+
+	// Request parameters that are present but empty mean "not filtered on", not "matches nothing"
+	@Test
+	void treatsBlankNamesAndEmptyBrandListsAsAbsent() {
+		assertThat(specification(ProductFilter.of("  ", List.of(), null, null, null))).isEqualTo(catalog);
+		assertThat(specification(ProductFilter.of("", null, null, null, false)))
+				.isEqualTo(specification(ProductFilter.of(null, null, null, null, false)));
+	}
+
+	@Test
+	void matchesLikeWildcardsLiterally() {
+		assertThat(specification(ProductFilter.of("%", null, null, null, null)))
+				.extracting(ProductDto::name).containsExactly("50% Off Milk");
+		assertThat(specification(ProductFilter.of("_", null, null, null, null)))
+				.extracting(ProductDto::name).containsExactly("Milk_2");
+		assertThat(specification(ProductFilter.of("\\", null, null, null, null))).isEmpty();
+	}
+
+	private List<ProductDto> specification(ProductFilter filter) {
+		return productRepository.findAll(ProductSpecifications.matching(filter), Sort.by("id")).stream()
+				.map(ProductDto::from)
+				.toList();
+	}
+
+	private static boolean matches(ProductFilter filter, ProductDto p) {
+		return (filter.name() == null || p.name().toLowerCase(Locale.ROOT).contains(filter.name().toLowerCase(Locale.ROOT)))
+				&& (filter.brands() == null || filter.brands().contains(p.brand()))
+				&& (filter.priceMin() == null || p.defaultPrice().compareTo(filter.priceMin()) >= 0)
+				&& (filter.priceMax() == null || p.defaultPrice().compareTo(filter.priceMax()) <= 0)
+				&& (filter.recommended() == null || p.recommended() == filter.recommended());
+	}
+
+	private static Product product(String name, String brand, String price, boolean recommended) {
+		return new Product(name, brand, "piece", new BigDecimal(price), "https://example.com/" + name.hashCode() + ".png", true, recommended);
+	}
+
+}
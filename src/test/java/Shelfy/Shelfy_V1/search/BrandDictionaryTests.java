@@ -0,0 +1,112 @@
+package Shelfy.Shelfy_V1.search;
+
+import Shelfy.Shelfy_V1.DTOs.BrandFacet;
+import Shelfy.Shelfy_V1.DTOs.ProductDto;
+import Shelfy.Shelfy_V1.events.ProductChangeEvent;
+import Shelfy.Shelfy_V1.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BrandDictionaryTests {
+
+	private final ProductRepository repository = mock(ProductRepository.class);
+	private BrandDictionary dictionary;
+
+	@BeforeEach
+	void setUp() {
+		when(repository.countProductsByBrand()).thenReturn(List.of(
+				new BrandFacet("HealthyLife", 2), new BrandFacet("SnackKing", 1)));
+		dictionary = new BrandDictionary(repository);
+		dictionary.reload(1);
+	}
+
+	@Test
+	void countsAddedProducts() {
+		dictionary.onProductChange(created(2, 10L, "SnackKing"));
+		dictionary.onProductChange(created(3, 11L, "GreenCo"));
+
+		assertThat(facets()).containsExactly(
+				new BrandFacet("GreenCo", 1), new BrandFacet("HealthyLife", 2), new BrandFacet("SnackKing", 2));
+		assertThat(dictionary.snapshot().orElseThrow().brands()).containsExactly("GreenCo", "HealthyLife", "SnackKing");
+	}
+
+	@Test
+	void movesAProductToItsNewBrand() {
+		dictionary.onProductChange(updated(2, 10L, "HealthyLife", "SnackKing"));
+
+		assertThat(facets()).containsExactly(new BrandFacet("HealthyLife", 1), new BrandFacet("SnackKing", 2));
+	}
+
+	@Test
+	void dropsABrandWithItsLastProduct() {
+		dictionary.onProductChange(deleted(2, 10L, "SnackKing"));
+
+		assertThat(facets()).containsExactly(new BrandFacet("HealthyLife", 2));
+		assertThat(dictionary.snapshot().orElseThrow().brands()).containsExactly("HealthyLife");
+	}
+
+	// A change delivered while the counts are read is applied on top of them, unless they already contain it.
+	@Test
+	void appliesChangesDuringLoadOnlyWhenNewerThanTheCounts() {
+		dictionary = new BrandDictionary(repository);
+		dictionary.reloading();
+		when(repository.countProductsByBrand()).thenAnswer(call -> {
+			// Committed at version 2, so already counted below
+			dictionary.onProductChange(created(2, 10L, "SnackKing"));
+			// Committed at version 3, after the counts were read
+			dictionary.onProductChange(created(3, 11L, "GreenCo"));
+			return List.of(new BrandFacet("HealthyLife", 2), new BrandFacet("SnackKing", 2));
+		});
+
+		dictionary.reload(2);
+
+		assertThat(facets()).containsExactly(
+				new BrandFacet("GreenCo", 1), new BrandFacet("HealthyLife", 2), new BrandFacet("SnackKing", 2));
+
+		// Delivered after the reload, so counted once
+		dictionary.onProductChange(deleted(4, 11L, "GreenCo"));
+		assertThat(facets()).containsExactly(new BrandFacet("HealthyLife", 2), new BrandFacet("SnackKing", 2));
+	}
+
+	@Test
+	void ignoresChangesBeforeTheFirstLoad() {
+		dictionary = new BrandDictionary(repository);
+		dictionary.onProductChange(created(2, 10L, "GreenCo"));
+
+		assertThat(dictionary.snapshot()).isEmpty();
+	}
+
+	private List<BrandFacet> facets() {
+		return dictionary.snapshot().orElseThrow().facets();
+	}
+
+	private static ProductChangeEvent created(long catalogVersion, Long id, String brand) {
+		return event(catalogVersion, ProductChangeEvent.Type.CREATED, id, null, product(id, brand));
+	}
+
+	private static ProductChangeEvent updated(long catalogVersion, Long id, String oldBrand, String newBrand) {
+		return event(catalogVersion, ProductChangeEvent.Type.UPDATED, id, product(id, oldBrand), product(id, newBrand));
+	}
+
+	private static ProductChangeEvent deleted(long catalogVersion, Long id, String brand) {
+		return event(catalogVersion, ProductChangeEvent.Type.DELETED, id, product(id, brand), null);
+	}
+
+	private static ProductChangeEvent event(long catalogVersion, ProductChangeEvent.Type type, Long id,
+											ProductDto before, ProductDto after) {
+		return new ProductChangeEvent(catalogVersion, catalogVersion, type, id, before, after, Instant.now(), "admin");
+	}
+
+	private static ProductDto product(Long id, String brand) {
+		return new ProductDto(id, "Product " + id, brand, "piece", new BigDecimal("1.99"), null, false, true);
+	}
+
+}
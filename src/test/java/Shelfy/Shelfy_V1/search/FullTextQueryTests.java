@@ -0,0 +1,22 @@
+package Shelfy.Shelfy_V1.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FullTextQueryTests {
+
+	@Test
+	void joinsWordsAsPrefixTerms() {
+		assertThat(FullTextQuery.prefixQuery("Organic Milk 1L")).isEqualTo("organic:* & milk:* & 1l:*");
+		assertThat(FullTextQuery.prefixQuery("  Käse,  Gouda ")).isEqualTo("käse:* & gouda:*");
+	}
+
+	@Test
+	void dropsTsqueryOperators() {
+		assertThat(FullTextQuery.prefixQuery("milk & !(cream | 'x'):*")).isEqualTo("milk:* & cream:* & x:*");
+		assertThat(FullTextQuery.prefixQuery("&|!")).isNull();
+		assertThat(FullTextQuery.prefixQuery(null)).isNull();
+	}
+
+}
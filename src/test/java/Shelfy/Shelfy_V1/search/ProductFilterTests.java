@@ -0,0 +1,20 @@
+package Shelfy.Shelfy_V1.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductFilterTests {
+
+	@Test
+	void shapeNamesTheSuppliedFilters() {
+		assertThat(ProductFilter.of(null, null, null, null, null).shape()).isEqualTo("none");
+		assertThat(ProductFilter.of(" ", List.of(), null, null, null).shape()).isEqualTo("none");
+		assertThat(ProductFilter.of("milk", List.of("HealthyLife"), null, null, null).shape()).isEqualTo("name+brand");
+		assertThat(ProductFilter.of(null, null, null, BigDecimal.TEN, false).shape()).isEqualTo("price+recommended");
+	}
+
+}
@@ -0,0 +1,98 @@
+package Shelfy.Shelfy_V1.search;
+
+import Shelfy.Shelfy_V1.DTOs.ProductDto;
+import Shelfy.Shelfy_V1.events.ProductChangeEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTests {
+
+	private ProductSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new ProductSearchIndex(null, true);
+		index.rebuild(List.of(
+				product(1L, "Organic Milk 1L", "HealthyLife", "1.99", true),
+				product(2L, "Chocolate Milk", "SnackKing", "2.49", false),
+				product(3L, "Salted Peanuts", "SnackKing", "3.10", true),
+				product(4L, "Oat Milk", "HealthyLife", "2.49", false)));
+	}
+
+	@Test
+	void matchesNameSubstringIgnoringCase() {
+		assertThat(ids(filter("MILK", null, null, null, null), Sort.unsorted())).containsExactly(1L, 2L, 4L);
+		assertThat(ids(filter("mi", null, null, null, null), Sort.unsorted())).containsExactly(1L, 2L, 4L);
+		assertThat(ids(filter("cream", null, null, null, null), Sort.unsorted())).isEmpty();
+	}
+
+	@Test
+	void combinesBrandPriceAndRecommendedFilters() {
+		assertThat(ids(filter(null, List.of("SnackKing"), null, null, null), Sort.unsorted())).containsExactly(2L, 3L);
+		assertThat(ids(filter(null, null, "2.00", "2.49", null), Sort.unsorted())).containsExactly(2L, 4L);
+		assertThat(ids(filter("milk", List.of("HealthyLife"), null, null, false), Sort.unsorted())).containsExactly(4L);
+	}
+
+	@Test
+	void appliesSortWithIdAsTieBreaker() {
+		assertThat(ids(filter(null, null, null, null, null), Sort.by(Sort.Order.desc("defaultPrice"))))
+				.containsExactly(3L, 2L, 4L, 1L);
+	}
+
+	@Test
+	void reflectsUpsertsAndRemovals() {
+		index.upsert(product(2L, "Chocolate Bar", "SnackKing", "0.99", false));
+		index.remove(4L);
+
+		assertThat(ids(filter("milk", null, null, null, null), Sort.unsorted())).containsExactly(1L);
+		assertThat(ids(filter(null, null, null, "1.00", null), Sort.unsorted())).containsExactly(2L);
+	}
+
+	// The index keeps the event's snapshot of the product, not anything a persistence context can still change.
+	@Test
+	void followsTheChangeFeedSnapshots() {
+		ProductDto before = index.search(filter("chocolate", null, null, null, null), Sort.unsorted()).orElseThrow().get(0);
+		ProductDto after = product(2L, "Chocolate Bar", "SnackKing", "0.99", false);
+
+		index.onProductChange(event(ProductChangeEvent.Type.UPDATED, 2L, before, after));
+		index.onProductChange(event(ProductChangeEvent.Type.DELETED, 4L,
+				product(4L, "Oat Milk", "HealthyLife", "2.49", false), null));
+
+		assertThat(index.search(filter("bar", null, null, null, null), Sort.unsorted()).orElseThrow())
+				.containsExactly(after);
+		assertThat(ids(filter("milk", null, null, null, null), Sort.unsorted())).containsExactly(1L);
+	}
+
+	@Test
+	void declinesUnknownSortProperties() {
+		assertThat(index.search(filter(null, null, null, null, null), Sort.by("color"))).isEmpty();
+		assertThat(index.search(filter(null, null, null, null, null), Sort.by("lastUpdate"))).isEmpty();
+	}
+
+	private List<Long> ids(ProductFilter filter, Sort sort) {
+		return index.search(filter, sort).orElseThrow().stream().map(ProductDto::id).toList();
+	}
+
+	private static ProductChangeEvent event(ProductChangeEvent.Type type, Long id, ProductDto before, ProductDto after) {
+		return new ProductChangeEvent(1, 0, type, id, before, after, Instant.now(), "admin");
+	}
+
+	private static ProductFilter filter(String name, List<String> brands, String min, String max, Boolean recommended) {
+		return ProductFilter.of(name, brands,
+				min == null ? null : new BigDecimal(min),
+				max == null ? null : new BigDecimal(max),
+				recommended);
+	}
+
+	private static ProductDto product(Long id, String name, String brand, String price, boolean recommended) {
+		return new ProductDto(id, name, brand, "piece", new BigDecimal(price), "https://example.com/" + id, recommended, true);
+	}
+
+}
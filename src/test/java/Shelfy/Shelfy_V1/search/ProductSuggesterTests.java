@@ -0,0 +1,117 @@
+package Shelfy.Shelfy_V1.search;
+
+import Shelfy.Shelfy_V1.DTOs.BrandFacet;
+import Shelfy.Shelfy_V1.DTOs.NameCount;
+import Shelfy.Shelfy_V1.DTOs.ProductDto;
+import Shelfy.Shelfy_V1.DTOs.Suggestion;
+import Shelfy.Shelfy_V1.events.ProductChangeEvent;
+import Shelfy.Shelfy_V1.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSuggesterTests {
+
+	private final ProductRepository repository = mock(ProductRepository.class);
+	private ProductSuggester suggester;
+
+	@BeforeEach
+	void setUp() {
+		when(repository.countProductsByName()).thenReturn(List.of(
+				new NameCount("Organic Milk 1L", 1), new NameCount("Milk Chocolate", 2), new NameCount("Mint Tea", 1)));
+		when(repository.countProductsByBrand()).thenReturn(List.of(
+				new BrandFacet("HealthyLife", 2), new BrandFacet("SnackKing", 2)));
+		suggester = new ProductSuggester(repository, true);
+		suggester.reload(1);
+	}
+
+	@Test
+	void completesAnyWordMostFrequentFirst() {
+		assertThat(texts("mil", 10)).containsExactly("Milk Chocolate", "Organic Milk 1L");
+		assertThat(texts("M", 2)).containsExactly("Milk Chocolate", "Mint Tea");
+		assertThat(texts("healthy", 10)).containsExactly("HealthyLife");
+		assertThat(suggester.suggest("heal", 1)).containsExactly(new Suggestion("HealthyLife", Suggestion.Type.BRAND));
+		assertThat(texts("xyz", 10)).isEmpty();
+	}
+
+	@Test
+	void followsWrites() {
+		suggester.changed("Milk Chocolate", "SnackKing", "Dark Chocolate", "SnackKing");
+		suggester.changed("Milk Chocolate", "SnackKing", "Dark Chocolate", "SnackKing");
+		suggester.removed("Mint Tea", "HealthyLife");
+		suggester.added("Minted Peas", "GreenCo");
+
+		assertThat(texts("mi", 10)).containsExactly("Minted Peas", "Organic Milk 1L");
+		assertThat(texts("choc", 10)).containsExactly("Dark Chocolate");
+		assertThat(texts("green", 10)).containsExactly("GreenCo");
+	}
+
+	@Test
+	void keepsChangesThatArriveWhileLoading() {
+		suggester = new ProductSuggester(repository, true);
+		suggester.reloading();
+		when(repository.countProductsByName()).thenAnswer(call -> {
+			// The change is delivered while the counts are being read, but is not part of them
+			suggester.onProductChange(created(2, "Fresh Basil", "GreenCo"));
+			return List.of(new NameCount("Mint Tea", 1));
+		});
+
+		suggester.reload(1);
+
+		assertThat(texts("bas", 10)).containsExactly("Fresh Basil");
+	}
+
+	@Test
+	void skipsChangesTheLoadAlreadyContains() {
+		suggester = new ProductSuggester(repository, true);
+		suggester.reloading();
+		when(repository.countProductsByName()).thenAnswer(call -> {
+			// Committed at version 2, which the counts below already include
+			suggester.onProductChange(created(2, "Fresh Basil", "GreenCo"));
+			return List.of(new NameCount("Fresh Basil", 1));
+		});
+		when(repository.countProductsByBrand()).thenReturn(List.of(new BrandFacet("GreenCo", 1)));
+
+		suggester.reload(2);
+		suggester.onProductChange(event(3, ProductChangeEvent.Type.DELETED, product("Fresh Basil", "GreenCo"), null));
+
+		assertThat(texts("fresh", 10)).isEmpty();
+		assertThat(texts("green", 10)).isEmpty();
+	}
+
+	@Test
+	void followsBrandChangesAndDropsABrandWithItsLastProduct() {
+		suggester.onProductChange(event(2, ProductChangeEvent.Type.UPDATED,
+				product("Milk Chocolate", "SnackKing"), product("Milk Chocolate", "ChocoLand")));
+		assertThat(texts("choco", 10)).containsExactly("Milk Chocolate", "ChocoLand");
+
+		suggester.onProductChange(event(3, ProductChangeEvent.Type.DELETED, product("Milk Chocolate", "SnackKing"), null));
+		assertThat(texts("snack", 10)).isEmpty();
+		assertThat(texts("healthy", 10)).containsExactly("HealthyLife");
+	}
+
+	private static ProductChangeEvent created(long catalogVersion, String name, String brand) {
+		return event(catalogVersion, ProductChangeEvent.Type.CREATED, null, product(name, brand));
+	}
+
+	private static ProductChangeEvent event(long catalogVersion, ProductChangeEvent.Type type,
+											ProductDto before, ProductDto after) {
+		return new ProductChangeEvent(catalogVersion, catalogVersion, type, 10L, before, after, Instant.now(), "admin");
+	}
+
+	private static ProductDto product(String name, String brand) {
+		return new ProductDto(10L, name, brand, "piece", new BigDecimal("1.99"), null, false, true);
+	}
+
+	private List<String> texts(String prefix, int limit) {
+		return suggester.suggest(prefix, limit).stream().map(Suggestion::text).toList();
+	}
+
+}
@@ -0,0 +1,88 @@
+package Shelfy.Shelfy_V1.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class SearchCursorTests {
+
+	@Test
+	void roundTripsTypedKeys() {
+		Map<String, Object> keys = new LinkedHashMap<>();
+		keys.put("defaultPrice", new BigDecimal("2.49"));
+		keys.put("name", "Milk & Honey = 100%");
+		keys.put("id", 42L);
+		Sort sort = Sort.by("defaultPrice", "name");
+
+		KeysetScrollPosition decoded = SearchCursor.decode(SearchCursor.encode(ScrollPosition.forward(keys), sort), sort);
+
+		assertThat(decoded.getKeys()).isEqualTo(keys);
+		assertThat(decoded.scrollsForward()).isTrue();
+	}
+
+	@Test
+	void rejectsCursorFromAnotherSort() {
+		String token = SearchCursor.encode(ScrollPosition.forward(Map.of("name", "Milk", "id", 1L)), Sort.by("name"));
+
+		assertThatIllegalArgumentException().isThrownBy(() -> SearchCursor.decode(token, Sort.by("defaultPrice")));
+	}
+
+	@Test
+	void rejectsCursorFromAnotherDirection() {
+		String token = SearchCursor.encode(ScrollPosition.forward(Map.of("name", "Milk", "id", 1L)), Sort.by("name"));
+
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> SearchCursor.decode(token, Sort.by(Sort.Direction.DESC, "name")));
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> SearchCursor.decode(token, Sort.by(Sort.Order.asc("name").ignoreCase())));
+	}
+
+	// Same keys, but sorted by them in another order: the token would resume at the wrong place.
+	@Test
+	void rejectsCursorFromAnotherPropertyOrder() {
+		Map<String, Object> keys = new LinkedHashMap<>();
+		keys.put("brand", "Acme");
+		keys.put("name", "Milk");
+		keys.put("id", 1L);
+		String token = SearchCursor.encode(ScrollPosition.forward(keys), Sort.by("brand", "name"));
+
+		assertThat(SearchCursor.decode(token, Sort.by("brand", "name")).getKeys()).isEqualTo(keys);
+		assertThatIllegalArgumentException().isThrownBy(() -> SearchCursor.decode(token, Sort.by("name", "brand")));
+	}
+
+	@Test
+	void rejectsCursorWithoutSort() {
+		String token = Base64.getUrlEncoder().withoutPadding()
+				.encodeToString("name=Milk&id=1".getBytes(StandardCharsets.UTF_8));
+
+		assertThatIllegalArgumentException().isThrownBy(() -> SearchCursor.decode(token, Sort.by("name")));
+	}
+
+	@Test
+	void supportsOnlyNonNullColumns() {
+		assertThat(SearchCursor.supports(Sort.by("brand", "defaultPrice"))).isTrue();
+		assertThat(SearchCursor.supports(Sort.by("lastUpdate"))).isFalse();
+	}
+
+	@Test
+	void refusesToEncodeNullKeys() {
+		Map<String, Object> keys = new LinkedHashMap<>();
+		keys.put("brand", null);
+		keys.put("id", 1L);
+
+		assertThatIllegalStateException()
+				.isThrownBy(() -> SearchCursor.encode(ScrollPosition.forward(keys), Sort.by("brand")));
+	}
+
+}
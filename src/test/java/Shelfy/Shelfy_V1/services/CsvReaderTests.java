@@ -0,0 +1,32 @@
+package Shelfy.Shelfy_V1.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvReaderTests {
+
+	@Test
+	void readsQuotedFieldsWithCommasQuotesAndLineBreaks() throws IOException {
+		var csv = new ProductImportService.CsvReader(new BufferedReader(new StringReader(
+				"name,brand\r\n\"Milk, 1L\",\"Baker\"\"s\"\n\"Two\nLines\",X\n")));
+
+		assertThat(csv.next()).containsExactly("name", "brand");
+		assertThat(csv.next()).containsExactly("Milk, 1L", "Baker\"s");
+		assertThat(csv.next()).containsExactly("Two\nLines", "X");
+		assertThat(csv.next()).isNull();
+	}
+
+	@Test
+	void keepsEmptyTrailingField() throws IOException {
+		var csv = new ProductImportService.CsvReader(new BufferedReader(new StringReader("a,,")));
+
+		assertThat(csv.next()).containsExactly("a", "", "");
+		assertThat(csv.next()).isNull();
+	}
+
+}
@@ -0,0 +1,136 @@
+package Shelfy.Shelfy_V1.services;
+
+import Shelfy.Shelfy_V1.entities.User;
+import Shelfy.Shelfy_V1.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Cached UserDetails must not outlive a change to the user row made through JPA: UserCacheInvalidator evicts
+// them on update and delete, and again after commit. Runs on an in-memory H2 database, with real commits.
+// Users have no role column (every account gets ROLE_ADMIN), so the flag that decides whether an account may
+// act at all, enabled, stands in for a change of authority.
+@DataJpaTest
+@Import({JpaUserDetailsService.class, UserCacheInvalidator.class, SimpleMeterRegistry.class})
+@TestPropertySource(properties = {
+		"spring.flyway.enabled=false",
+		"spring.sql.init.mode=never",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"security.user-cache.ttl=1h"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JpaUserDetailsServiceCacheTests {
+
+	@Autowired
+	private JpaUserDetailsService userDetailsService;
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@BeforeEach
+	void setUp() {
+		userRepository.save(new User("alice", "{noop}old", true));
+		// Cache the user
+		assertThat(userDetailsService.loadUserByUsername("alice").getPassword()).isEqualTo("{noop}old");
+	}
+
+	@AfterEach
+	void tearDown() {
+		userRepository.deleteAll();
+	}
+
+	// Without an eviction the cached row is served, which is what the other tests rely on to mean anything
+	@Test
+	void servesChangesMadeOutsideJpaFromTheCache() {
+		jdbcTemplate.update("UPDATE users SET password = '{noop}new' WHERE username = 'alice'");
+
+		assertThat(userDetailsService.loadUserByUsername("alice").getPassword()).isEqualTo("{noop}old");
+	}
+
+	@Test
+	void seesAChangedPasswordOnTheNextLookup() {
+		change(user -> user.setPassword("{noop}new"));
+
+		assertThat(userDetailsService.loadUserByUsername("alice").getPassword()).isEqualTo("{noop}new");
+	}
+
+	@Test
+	void seesADisabledAccountOnTheNextLookup() {
+		change(user -> user.setEnabled(false));
+
+		assertThat(userDetailsService.loadUserByUsername("alice").isEnabled()).isFalse();
+	}
+
+	@Test
+	void forgetsTheOldNameOfARenamedUser() {
+		change(user -> user.setUsername("alicia"));
+
+		assertThatThrownBy(() -> userDetailsService.loadUserByUsername("alice"))
+				.isInstanceOf(UsernameNotFoundException.class);
+		assertThat(userDetailsService.loadUserByUsername("alicia").getPassword()).isEqualTo("{noop}old");
+	}
+
+	@Test
+	void forgetsADeletedUser() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+				userRepository.delete(userRepository.findByUsername("alice").orElseThrow()));
+
+		assertThatThrownBy(() -> userDetailsService.loadUserByUsername("alice"))
+				.isInstanceOf(UsernameNotFoundException.class);
+	}
+
+	// A lookup between the flush and the commit reads, and caches, the committed old row. The eviction after
+	// commit must remove it again.
+	@Test
+	void evictsALookupThatRacedTheTransaction() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			User user = userRepository.findByUsername("alice").orElseThrow();
+			user.setPassword("{noop}new");
+			userRepository.flush();
+			UserDetails racing = CompletableFuture.supplyAsync(() -> userDetailsService.loadUserByUsername("alice")).join();
+			assertThat(racing.getPassword()).isEqualTo("{noop}old");
+		});
+
+		assertThat(userDetailsService.loadUserByUsername("alice").getPassword()).isEqualTo("{noop}new");
+	}
+
+	@Test
+	void keepsServingTheOldRowAfterARollback() {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.executeWithoutResult(status -> {
+			userRepository.findByUsername("alice").orElseThrow().setPassword("{noop}new");
+			userRepository.flush();
+			status.setRollbackOnly();
+		});
+
+		assertThat(userDetailsService.loadUserByUsername("alice").getPassword()).isEqualTo("{noop}old");
+	}
+
+	// Load, change and commit the user in one transaction, like an account update would.
+	private void change(Consumer<User> update) {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+				update.accept(userRepository.findByUsername("alice").orElseThrow()));
+	}
+
+}
@@ -0,0 +1,55 @@
+package Shelfy.Shelfy_V1.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginRateLimiterTests {
+
+	@Test
+	void limitsAttemptsPerUsername() {
+		LoginRateLimiter limiter = new LoginRateLimiter(2, 100, Duration.ofMinutes(1));
+
+		assertThat(limiter.tryAcquire("alice", "10.0.0.1")).isNotNull();
+		assertThat(limiter.tryAcquire("Alice", "10.0.0.2")).isNotNull();
+		assertThat(limiter.tryAcquire("alice", "10.0.0.3")).isNull();
+		assertThat(limiter.tryAcquire("bob", "10.0.0.1")).isNotNull();
+	}
+
+	@Test
+	void limitsAttemptsPerAddress() {
+		LoginRateLimiter limiter = new LoginRateLimiter(100, 2, Duration.ofMinutes(1));
+
+		assertThat(limiter.tryAcquire("alice", "10.0.0.1")).isNotNull();
+		assertThat(limiter.tryAcquire("bob", "10.0.0.1")).isNotNull();
+		assertThat(limiter.tryAcquire("carol", "10.0.0.1")).isNull();
+		assertThat(limiter.tryAcquire("carol", "10.0.0.2")).isNotNull();
+	}
+
+	@Test
+	void forgetsAttemptsOutsideTheWindow() throws InterruptedException {
+		LoginRateLimiter limiter = new LoginRateLimiter(1, 100, Duration.ofMillis(50));
+
+		assertThat(limiter.tryAcquire("alice", "10.0.0.1")).isNotNull();
+		assertThat(limiter.tryAcquire("alice", "10.0.0.1")).isNull();
+		Thread.sleep(80);
+		assertThat(limiter.tryAcquire("alice", "10.0.0.1")).isNotNull();
+	}
+
+	// A refunded attempt (a successful login) leaves both limits as they were.
+	@Test
+	void refundedAttemptsDoNotCount() {
+		LoginRateLimiter limiter = new LoginRateLimiter(1, 1, Duration.ofMinutes(1));
+
+		for (int i = 0; i < 5; i++) {
+			LoginRateLimiter.Attempt attempt = limiter.tryAcquire("alice", "10.0.0.1");
+			assertThat(attempt).isNotNull();
+			attempt.refund();
+		}
+		assertThat(limiter.tryAcquire("alice", "10.0.0.1")).isNotNull();
+		assertThat(limiter.tryAcquire("alice", "10.0.0.1")).isNull();
+	}
+
+}
@@ -0,0 +1,82 @@
+package Shelfy.Shelfy_V1.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Only failed logins use up the rate limits, so many users signing in from behind one address are not
+// turned away.
+class LoginServiceTests {
+
+	private final AuthenticationManager authManager = mock(AuthenticationManager.class);
+	private LoginService loginService;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		AuthenticationConfiguration config = mock(AuthenticationConfiguration.class);
+		when(config.getAuthenticationManager()).thenReturn(authManager);
+		when(authManager.authenticate(any())).thenAnswer(call -> {
+			Authentication request = call.getArgument(0);
+			if (!"secret".equals(request.getCredentials())) {
+				throw new BadCredentialsException("bad");
+			}
+			return new UsernamePasswordAuthenticationToken(request.getName(), null, List.of());
+		});
+		loginService = new LoginService(config, new LoginRateLimiter(2, 3, Duration.ofMinutes(1)), 1, 8);
+	}
+
+	@AfterEach
+	void tearDown() {
+		loginService.shutdown();
+	}
+
+	@Test
+	void successfulLoginsDoNotCount() {
+		for (int i = 0; i < 10; i++) {
+			assertThat(loginService.authenticate("user" + i, "secret", "10.0.0.1").join().getName())
+					.isEqualTo("user" + i);
+		}
+		assertThat(loginService.authenticate("alice", "secret", "10.0.0.1").join().getName()).isEqualTo("alice");
+	}
+
+	@Test
+	void failedLoginsCountPerUsernameAndAddress() {
+		assertStatus("alice", "wrong", "10.0.0.1", HttpStatus.UNAUTHORIZED);
+		assertStatus("alice", "wrong", "10.0.0.2", HttpStatus.UNAUTHORIZED);
+		assertThatThrownBy(() -> loginService.authenticate("alice", "secret", "10.0.0.3"))
+				.isInstanceOfSatisfying(ResponseStatusException.class,
+						e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+
+		assertStatus("bob", "wrong", "10.0.0.1", HttpStatus.UNAUTHORIZED);
+		assertStatus("bob", "wrong", "10.0.0.1", HttpStatus.UNAUTHORIZED);
+		assertThatThrownBy(() -> loginService.authenticate("carol", "secret", "10.0.0.1"))
+				.isInstanceOfSatisfying(ResponseStatusException.class,
+						e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS));
+	}
+
+	private void assertStatus(String username, String password, String ip, HttpStatus expected) {
+		assertThatThrownBy(() -> loginService.authenticate(username, password, ip).join())
+				.isInstanceOf(CompletionException.class)
+				.cause()
+				.isInstanceOfSatisfying(ResponseStatusException.class,
+						e -> assertThat(e.getStatusCode()).isEqualTo(expected));
+	}
+
+}
@@ -0,0 +1,129 @@
+package Shelfy.Shelfy_V1.services;
+
+import Shelfy.Shelfy_V1.DTOs.ImportJobStatus;
+import Shelfy.Shelfy_V1.DTOs.ImportSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductImportServiceTests {
+
+	private ProductImportService importService;
+
+	private final CountDownLatch writerReleased = new CountDownLatch(1);
+	private volatile boolean slowWriter;
+
+	@BeforeEach
+	void setUp() {
+		ProductService productService = mock(ProductService.class);
+		when(productService.getImportChunkSize()).thenReturn(100);
+		when(productService.importChunk(anyList(), anyList())).thenAnswer(call -> {
+			if (slowWriter) writerReleased.await(10, TimeUnit.SECONDS);
+			return new ImportSummary(call.<List<?>>getArgument(0).size(), 0, List.of());
+		});
+		importService = new ProductImportService(productService, new ObjectMapper(), 1);
+	}
+
+	@AfterEach
+	void tearDown() {
+		importService.shutdown();
+	}
+
+	@Test
+	void createsJobBeforeUploadAndAcceptsOneUpload() {
+		ImportJobStatus created = importService.create();
+		assertThat(created.state()).isEqualTo(ImportJobStatus.State.PENDING);
+		assertThat(importService.status(created.id())).hasValueSatisfying(s -> assertThat(s.format()).isNull());
+
+		importService.upload(created.id(), csv("name,brand,unit,defaultPrice,imageUrl\nMilk,A,l,1.99,https://x/1\n"),
+				ProductImportService.Format.CSV);
+
+		assertThatThrownBy(() -> importService.upload(created.id(), csv(""), ProductImportService.Format.CSV))
+				.isInstanceOfSatisfying(ResponseStatusException.class,
+						e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+		assertThatThrownBy(() -> importService.upload("missing", csv(""), ProductImportService.Format.CSV))
+				.isInstanceOfSatisfying(ResponseStatusException.class,
+						e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+	}
+
+	@Test
+	void rejectsRowsWithUnrecognisedFlags() throws InterruptedException {
+		ImportJobStatus status = importService.importStream(csv("""
+				name,brand,unit,defaultPrice,imageUrl,active,recommended
+				Milk,A,l,1.99,https://x/1,TRUE,
+				Tea,A,box,2.49,https://x/2,yes,false
+				Oats,A,kg,3.10,https://x/3,true,1
+				"""), ProductImportService.Format.CSV);
+
+		ImportJobStatus done = awaitFinished(status.id());
+		assertThat(done.inserted()).isEqualTo(1);
+		assertThat(done.failed()).isEqualTo(2);
+		assertThat(done.errors()).extracting(ImportSummary.RowError::row).containsExactly(2L, 3L);
+	}
+
+	// The upload breaks off while the writer is behind and the queue is full: the writer must still get its
+	// end of input and give the only import slot back.
+	@Test
+	void releasesTheSlotWhenAnUploadFailsWithAFullQueue() throws InterruptedException {
+		slowWriter = true;
+		StringBuilder rows = new StringBuilder("name,brand,unit,defaultPrice,imageUrl\n");
+		for (int i = 0; i < 550; i++) {
+			rows.append("Milk ").append(i).append(",A,l,1.99,https://x/").append(i).append('\n');
+		}
+		InputStream broken = new SequenceInputStream(csv(rows.toString()), new InputStream() {
+			@Override
+			public int read() throws IOException {
+				throw new IOException("Connection reset");
+			}
+		});
+
+		ImportJobStatus failed = importService.importStream(broken, ProductImportService.Format.CSV);
+		assertThat(failed.state()).isEqualTo(ImportJobStatus.State.FAILED);
+		slowWriter = false;
+		writerReleased.countDown();
+
+		ImportJobStatus next = null;
+		for (int i = 0; i < 100 && next == null; i++) {
+			try {
+				next = importService.importStream(csv("name,brand,unit,defaultPrice,imageUrl\n"),
+						ProductImportService.Format.CSV);
+			} catch (ResponseStatusException e) {
+				assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+				Thread.sleep(20);
+			}
+		}
+		assertThat(next).isNotNull();
+	}
+
+	private ImportJobStatus awaitFinished(String id) throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			ImportJobStatus status = importService.status(id).orElseThrow();
+			if (status.finishedAt() != null) return status;
+			Thread.sleep(20);
+		}
+		throw new AssertionError("Import did not finish");
+	}
+
+	private static ByteArrayInputStream csv(String body) {
+		return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
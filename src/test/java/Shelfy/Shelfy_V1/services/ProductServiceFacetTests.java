@@ -0,0 +1,129 @@
+package Shelfy.Shelfy_V1.services;
+
+import Shelfy.Shelfy_V1.DTOs.BrandFacet;
+import Shelfy.Shelfy_V1.DTOs.FacetedSearchResult;
+import Shelfy.Shelfy_V1.DTOs.ProductDto;
+import Shelfy.Shelfy_V1.DTOs.SearchFacets;
+import Shelfy.Shelfy_V1.cache.CatalogVersion;
+import Shelfy.Shelfy_V1.cache.ProductCache;
+import Shelfy.Shelfy_V1.events.ProductChangeLog;
+import Shelfy.Shelfy_V1.repositories.ProductRepository;
+import Shelfy.Shelfy_V1.search.BrandDictionary;
+import Shelfy.Shelfy_V1.search.ProductFilter;
+import Shelfy.Shelfy_V1.search.ProductSearchIndex;
+import Shelfy.Shelfy_V1.search.ProductSuggester;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+// The facets of /search/faceted describe exactly the products it returns: the same filtered result as
+// /search, with every item counted once per facet.
+class ProductServiceFacetTests {
+
+	private static final List<ProductDto> CATALOG = List.of(
+			product(1L, "Organic Milk", "HealthyLife", "0.00", true),
+			product(2L, "Chocolate Milk", "SnackKing", "2.49", false),
+			product(3L, "Salted Peanuts", "SnackKing", "4.99", true),
+			product(4L, "Oat Milk", "HealthyLife", "5.00", false),
+			product(5L, "Milk Chocolate", "ChocoLand", "7.25", false),
+			product(6L, "Almond Milk", "HealthyLife", "12.00", true),
+			product(7L, "Dark Chocolate", "ChocoLand", "14.99", true));
+
+	private ProductService productService;
+
+	@BeforeEach
+	void setUp() {
+		ProductSearchIndex index = new ProductSearchIndex(null, true);
+		index.rebuild(CATALOG);
+		productService = new ProductService(mock(ProductRepository.class), index,
+				mock(BrandDictionary.class), mock(ProductSuggester.class), mock(ProductCache.class),
+				mock(CatalogVersion.class), new ProductMetrics(new SimpleMeterRegistry()), mock(ProductChangeLog.class),
+				mock(EntityManager.class), mock(PlatformTransactionManager.class), mock(Validator.class), 500);
+	}
+
+	@Test
+	void countsTheFilteredResult() {
+		FacetedSearchResult result = productService.findProductsWithFacets(
+				ProductFilter.of("milk", null, null, null, null), Sort.unsorted(), new BigDecimal("5"));
+
+		assertThat(result.items()).extracting(ProductDto::id).containsExactly(1L, 2L, 4L, 5L, 6L);
+		assertThat(result.facets()).isEqualTo(new SearchFacets(
+				List.of(new BrandFacet("ChocoLand", 1), new BrandFacet("HealthyLife", 3), new BrandFacet("SnackKing", 1)),
+				2, 3,
+				List.of(bucket("0", "5", 2), bucket("5", "10", 2), bucket("10", "15", 1))));
+	}
+
+	// Every combination of set and absent filters, including one that matches nothing
+	@Test
+	void agreesWithTheSearchForEveryFilterCombination() {
+		List<ProductFilter> filters = List.of(
+				ProductFilter.of(null, null, null, null, null),
+				ProductFilter.of("chocolate", null, null, null, null),
+				ProductFilter.of(null, List.of("SnackKing", "ChocoLand"), null, null, null),
+				ProductFilter.of(null, null, new BigDecimal("2.49"), new BigDecimal("12.00"), null),
+				ProductFilter.of(null, null, null, null, false),
+				ProductFilter.of("milk", List.of("HealthyLife"), null, new BigDecimal("5.00"), true),
+				ProductFilter.of("cream", null, null, null, null));
+		for (ProductFilter filter : filters) {
+			for (BigDecimal width : List.of(new BigDecimal("0.5"), new BigDecimal("5"), new BigDecimal("100"))) {
+				FacetedSearchResult result = productService.findProductsWithFacets(filter, Sort.unsorted(), width);
+				List<ProductDto> searched = productService.findProductsByName(filter.name(), filter.brands(),
+						filter.priceMin(), filter.priceMax(), filter.recommended(), Sort.unsorted());
+
+				assertThat(result.items()).as(filter.shape()).isEqualTo(searched);
+				assertFacetsDescribe(result.facets(), searched, width);
+			}
+		}
+	}
+
+	@Test
+	void rejectsANonPositiveBucketWidth() {
+		for (String width : List.of("0", "-5")) {
+			assertThatThrownBy(() -> productService.findProductsWithFacets(
+					ProductFilter.of(null, null, null, null, null), Sort.unsorted(), new BigDecimal(width)))
+					.isInstanceOfSatisfying(ResponseStatusException.class,
+							e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+		}
+	}
+
+	private static void assertFacetsDescribe(SearchFacets facets, List<ProductDto> items, BigDecimal width) {
+		Map<String, Long> brands = items.stream().collect(Collectors.groupingBy(ProductDto::brand, Collectors.counting()));
+		assertThat(facets.brands()).allSatisfy(facet -> assertThat(facet.count()).isEqualTo(brands.get(facet.brand())));
+		assertThat(facets.brands()).extracting(BrandFacet::brand).containsExactlyInAnyOrderElementsOf(brands.keySet());
+
+		assertThat(facets.recommended()).isEqualTo(items.stream().filter(ProductDto::recommended).count());
+		assertThat(facets.recommended() + facets.notRecommended()).isEqualTo(items.size());
+
+		assertThat(facets.prices()).allSatisfy(bucket -> {
+			assertThat(bucket.to().subtract(bucket.from())).isEqualByComparingTo(width);
+			assertThat(bucket.count()).isPositive().isEqualTo(items.stream()
+					.filter(p -> p.defaultPrice().compareTo(bucket.from()) >= 0 && p.defaultPrice().compareTo(bucket.to()) < 0)
+					.count());
+		});
+		assertThat(facets.prices().stream().mapToLong(SearchFacets.PriceBucket::count).sum()).isEqualTo(items.size());
+	}
+
+	private static SearchFacets.PriceBucket bucket(String from, String to, long count) {
+		return new SearchFacets.PriceBucket(new BigDecimal(from), new BigDecimal(to), count);
+	}
+
+	private static ProductDto product(Long id, String name, String brand, String price, boolean recommended) {
+		return new ProductDto(id, name, brand, "piece", new BigDecimal(price), "https://example.com/" + id + ".png", recommended, true);
+	}
+
+}
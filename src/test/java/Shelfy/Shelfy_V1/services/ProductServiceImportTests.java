@@ -0,0 +1,137 @@
+package Shelfy.Shelfy_V1.services;
+
+import Shelfy.Shelfy_V1.DTOs.ImportSummary;
+import Shelfy.Shelfy_V1.cache.CatalogVersion;
+import Shelfy.Shelfy_V1.cache.ProductCache;
+import Shelfy.Shelfy_V1.entities.Product;
+import Shelfy.Shelfy_V1.events.ProductChangeLog;
+import Shelfy.Shelfy_V1.repositories.ProductRepository;
+import Shelfy.Shelfy_V1.search.BrandDictionary;
+import Shelfy.Shelfy_V1.search.ProductSearchIndex;
+import Shelfy.Shelfy_V1.search.ProductSuggester;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Imports go out in chunks of shelfy.import.chunk-size: one transaction, one flush and one clear per chunk.
+// A bad row costs only itself, whether validation or the database rejects it.
+class ProductServiceImportTests {
+
+	private static final int CHUNK_SIZE = 3;
+
+	private final EntityManager entityManager = mock(EntityManager.class);
+	private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+	private final ProductChangeLog changeLog = mock(ProductChangeLog.class);
+	// What the mocks saw, in order: "persist <name>", "flush", "clear", "commit", "rollback"
+	private final List<String> calls = new ArrayList<>();
+	private final List<Product> pending = new ArrayList<>();
+	private ProductService productService;
+
+	@BeforeEach
+	void setUp() {
+		doAnswer(call -> {
+			Product product = call.getArgument(0);
+			calls.add("persist " + product.getName());
+			pending.add(product);
+			return null;
+		}).when(entityManager).persist(any());
+		// The database rejects a flush that contains a product named "Duplicate"
+		doAnswer(call -> {
+			calls.add("flush");
+			if (pending.stream().anyMatch(p -> p.getName().equals("Duplicate"))) {
+				throw new PersistenceException("could not execute batch",
+						new SQLException("duplicate key value violates unique constraint"));
+			}
+			return null;
+		}).when(entityManager).flush();
+		doAnswer(call -> {
+			calls.add("clear");
+			return null;
+		}).when(entityManager).clear();
+		when(transactionManager.getTransaction(any())).thenAnswer(call -> {
+			pending.clear();
+			return new SimpleTransactionStatus();
+		});
+		doAnswer(call -> calls.add("commit")).when(transactionManager).commit(any());
+		doAnswer(call -> calls.add("rollback")).when(transactionManager).rollback(any());
+
+		productService = new ProductService(mock(ProductRepository.class), mock(ProductSearchIndex.class),
+				mock(BrandDictionary.class), mock(ProductSuggester.class), mock(ProductCache.class),
+				mock(CatalogVersion.class), new ProductMetrics(new SimpleMeterRegistry()), changeLog,
+				entityManager, transactionManager, Validation.buildDefaultValidatorFactory().getValidator(), CHUNK_SIZE);
+	}
+
+	@Test
+	void flushesAndClearsOncePerChunk() {
+		ImportSummary summary = productService.importProducts(products("A", "B", "C", "D", "E", "F", "G"));
+
+		assertThat(summary).isEqualTo(new ImportSummary(7, 0, List.of()));
+		assertThat(calls).containsExactly(
+				"persist A", "persist B", "persist C", "flush", "clear", "commit",
+				"persist D", "persist E", "persist F", "flush", "clear", "commit",
+				"persist G", "flush", "clear", "commit");
+	}
+
+	@Test
+	void startsNoEmptyChunkAfterAFullOne() {
+		productService.importProducts(products("A", "B", "C", "D", "E", "F"));
+
+		assertThat(calls).filteredOn("flush"::equals).hasSize(2);
+		assertThat(calls).filteredOn("commit"::equals).hasSize(2);
+	}
+
+	@Test
+	void skipsAnInvalidRowMidChunk() {
+		List<Product> products = products("A", "B", "C", "D", "E", "F");
+		products.set(4, new Product("", "Acme", "piece", BigDecimal.ONE, "https://example.com/e.png", true, false));
+
+		ImportSummary summary = productService.importProducts(products);
+
+		assertThat(summary).isEqualTo(new ImportSummary(5, 1,
+				List.of(new ImportSummary.RowError(5, "Name must not be blank"))));
+		assertThat(calls).containsExactly(
+				"persist A", "persist B", "persist C", "flush", "clear", "commit",
+				"persist D", "persist F", "flush", "clear", "commit");
+	}
+
+	// The chunk's batch is rolled back and its rows are retried one by one, so only the rejected row is lost.
+	// The chunks before and after it are not touched.
+	@Test
+	void isolatesARowTheDatabaseRejectsMidChunk() {
+		ImportSummary summary = productService.importProducts(products("A", "B", "C", "D", "Duplicate", "F", "G"));
+
+		assertThat(summary).isEqualTo(new ImportSummary(6, 1,
+				List.of(new ImportSummary.RowError(5, "duplicate key value violates unique constraint"))));
+		assertThat(calls).containsExactly(
+				"persist A", "persist B", "persist C", "flush", "clear", "commit",
+				"persist D", "persist Duplicate", "persist F", "flush", "rollback",
+				"persist D", "flush", "clear", "commit",
+				"persist Duplicate", "flush", "rollback",
+				"persist F", "flush", "clear", "commit",
+				"persist G", "flush", "clear", "commit");
+	}
+
+	private static List<Product> products(String... names) {
+		return IntStream.range(0, names.length)
+				.mapToObj(i -> new Product(names[i], "Acme", "piece", BigDecimal.ONE, "https://example.com/" + i + ".png", true, false))
+				.collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+	}
+
+}
@@ -0,0 +1,37 @@
+package Shelfy.Shelfy_V1.sql;
+
+import Shelfy.Shelfy_V1.DTOs.SlowQuery;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+
+class SlowQueryReportTests {
+
+	@Test
+	void ranksStatementsByTotalTime() {
+		SlowQueryReport report = new SlowQueryReport(2, Duration.ofMinutes(5));
+		report.record("select 1", 5_000_000, true);
+		report.record("select 1", 5_000_000, true);
+		report.record("select 2", 30_000_000, false);
+		report.record("select 3", 1_000_000, true);
+
+		assertThat(report.report().statements())
+				.extracting(SlowQuery::sql, SlowQuery::executions, SlowQuery::failures, SlowQuery::maxMillis)
+				.containsExactly(
+						tuple("select 2", 1L, 1L, 30.0),
+						tuple("select 1", 2L, 0L, 5.0));
+	}
+
+	@Test
+	void resetClearsStatistics() {
+		SlowQueryReport report = new SlowQueryReport(10, Duration.ofMinutes(5));
+		report.record("select 1", 1_000_000, true);
+		report.reset();
+
+		assertThat(report.report().statements()).isEmpty();
+	}
+
+}